@@ -4,6 +4,7 @@ import android.support.v7.app.AppCompatActivity;
 import android.os.Bundle;
 import android.util.Log;
 
+import com.xie.rlrecycleview.view.LoadRequest;
 import com.xie.rlrecycleview.view.RefreshLoadRecyclerAdapter;
 import com.xie.rlrecycleview.view.RefreshLoadRecyclerView;
 
@@ -27,62 +28,90 @@ public class MainActivity extends AppCompatActivity {
         recyclerView.setAdapter(adapter);
         adapter.setDatas(datas);
         adapter.setAutoLoadEnable(true, 3);
-        adapter.setOnLoadMoreListener(new RefreshLoadRecyclerAdapter.OnLoadMoreListener() {
+        adapter.setAdaptiveLoadMoreEnable(true);
+        adapter.setPreInflateCount(0, 10);
+        adapter.setOnLoadMoreRequestListener(new RefreshLoadRecyclerAdapter.OnLoadMoreRequestListener() {
             @Override
-            public void onLoadMore() {
-                Thread thread = new Thread(new Runnable() {
+            public void onLoadMore(final LoadRequest request) {
+                //在主线程取得下一页的起始值，后台线程只操作自己的数据
+                List<Integer> currentList = adapter.getCurrentList();
+                final int startIndex = currentList.isEmpty() ? 0 : currentList.get(currentList.size() - 1) + 1;
+                final Thread thread = new Thread(new Runnable() {
 
                     @Override
                     public void run() {
                         Log.i("testMsg", "load more");
-                        int startIndex = datas.get(datas.size() - 1) + 1;
-                        datas.clear();
+                        final List<Integer> page = new ArrayList<>();
                         for (int i = 0; i < 20; i++) {
-                            datas.add(startIndex + i);
+                            page.add(startIndex + i);
                         }
                         try {
                             Thread.sleep(2000);
                         } catch (InterruptedException e) {
-                            e.printStackTrace();
+                            //请求被取消
+                            return;
                         }
+                        final boolean isNoMore = page.get(0) > 200;
                         runOnUiThread(new Runnable() {
                             @Override
                             public void run() {
-                                adapter.addDatas(datas);
-                                if (datas.get(0) > 200) {
-                                    adapter.showNoMoreHint();
-                                } else {
-                                    adapter.finishLoadMore();
-                                }
+                                //期间开始了下拉刷新，丢弃这一页
+                                if (!adapter.isRequestActive(request)) return;
+                                //数据生效后再结束加载，防止差异计算期间重复触发加载
+                                adapter.addDatas(page, new Runnable() {
+                                    @Override
+                                    public void run() {
+                                        if (isNoMore) {
+                                            adapter.showNoMoreHint(request);
+                                        } else {
+                                            adapter.finishLoadMore(request);
+                                        }
+                                    }
+                                });
                             }
                         });
                     }
                 });
+                request.setOnCancelListener(new LoadRequest.OnCancelListener() {
+                    @Override
+                    public void onCancel(LoadRequest request) {
+                        thread.interrupt();
+                    }
+                });
                 thread.start();
             }
         });
         adapter.setPullToRefresh(true);
-        adapter.setOnRefreshListener(new RefreshLoadRecyclerAdapter.OnRefreshListener() {
+        adapter.setOnRefreshRequestListener(new RefreshLoadRecyclerAdapter.OnRefreshRequestListener() {
             @Override
-            public void onRefresh() {
+            public void onRefresh(final LoadRequest request) {
                 Log.i("testMsg", "onRefresh: ");
-                Thread thread = new Thread(new Runnable() {
+                final Thread thread = new Thread(new Runnable() {
 
                     @Override
                     public void run() {
                         try {
                             Thread.sleep(1000);
                         } catch (InterruptedException e) {
-                            e.printStackTrace();
+                            return;
                         }
                         runOnUiThread(new Runnable() {
                             @Override
                             public void run() {
-                                adapter.finishRefresh();
+                                if (!adapter.isRequestActive(request)) return;
+                                adapter.setDatas(datas);
+                                adapter.resetLoadMoreState();
+                                adapter.finishRefresh(request);
                             }
                         });
                     }
                 });
+                request.setOnCancelListener(new LoadRequest.OnCancelListener() {
+                    @Override
+                    public void onCancel(LoadRequest request) {
+                        thread.interrupt();
+                    }
+                });
                 thread.start();
             }
         });
@@ -1,13 +1,17 @@
 package com.xie.rlrecycleview;
 
 import android.content.Context;
+import android.support.annotation.NonNull;
+import android.support.v7.util.DiffUtil;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.TextView;
 import android.widget.Toast;
 
-import com.xie.rlrecycleview.view.RefreshLoadRecyclerAdapter;
+import com.xie.rlrecycleview.annotation.BindItemView;
+import com.xie.rlrecycleview.annotation.ItemLayout;
 import com.xie.rlrecycleview.view.BaseRecyclerViewHolder;
+import com.xie.rlrecycleview.view.RefreshLoadListAdapter;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -16,30 +20,42 @@ import java.util.List;
  * Created by Anthony on 2018/11/23.
  * Describe:
  */
-public class MyAdapter extends RefreshLoadRecyclerAdapter {
-    private List<Integer> datas;
+public class MyAdapter extends RefreshLoadListAdapter<Integer> {
+    private static final DiffUtil.ItemCallback<Integer> DIFF_CALLBACK = new DiffUtil.ItemCallback<Integer>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Integer oldItem, @NonNull Integer newItem) {
+            return oldItem.equals(newItem);
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Integer oldItem, @NonNull Integer newItem) {
+            return oldItem.equals(newItem);
+        }
+    };
 
     public MyAdapter(Context context) {
-        super(context);
-        datas = new ArrayList<>();
+        super(context, DIFF_CALLBACK);
     }
 
-    public void addDatas(List<Integer> datas) {
+    public void addDatas(List<Integer> datas, Runnable commitCallback) {
         if (datas.isEmpty()) return;
-        int originalSize = this.datas.size();
-        this.datas.addAll(datas);
-        notifyItemRangeInserted(originalSize + getHeadersCount(), datas.size());
+        List<Integer> newDatas = new ArrayList<>(getCurrentList());
+        newDatas.addAll(datas);
+        submitList(newDatas, commitCallback);
     }
 
     public void setDatas(List<Integer> datas) {
-        this.datas.clear();
-        this.datas.addAll(datas);
-        notifyDataSetChanged();
+        submitList(new ArrayList<>(datas));
     }
 
     @Override
     protected BaseRecyclerViewHolder onCreateViewHolderNew(ViewGroup parent, int viewType) {
-        return BaseRecyclerViewHolder.createViewHolder(context, parent, R.layout.item_list);
+        return MyAdapter_ItemHolder_Binding.create(context, parent);
+    }
+
+    @Override
+    protected BaseRecyclerViewHolder onCreateViewHolderFromView(@NonNull View itemView, int viewType) {
+        return new MyAdapter_ItemHolder_Binding(itemView);
     }
 
     @Override
@@ -49,8 +65,8 @@ public class MyAdapter extends RefreshLoadRecyclerAdapter {
 
     @Override
     protected void onBindViewHolderNew(BaseRecyclerViewHolder holder, final int position) {
-        TextView textview = holder.getView(R.id.textview);
-        textview.setText(String.valueOf(datas.get(position)));
+        TextView textview = ((ItemHolder) holder).textview;
+        textview.setText(String.valueOf(getItem(position)));
         holder.getConvertView().setOnClickListener(new View.OnClickListener() {
             @Override
             public void onClick(View v) {
@@ -59,8 +75,13 @@ public class MyAdapter extends RefreshLoadRecyclerAdapter {
         });
     }
 
-    @Override
-    protected int getRealItemCount() {
-        return datas.size();
+    @ItemLayout(R.layout.item_list)
+    static class ItemHolder extends BaseRecyclerViewHolder {
+        @BindItemView(R.id.textview)
+        TextView textview;
+
+        ItemHolder(View itemView) {
+            super(itemView);
+        }
     }
 }
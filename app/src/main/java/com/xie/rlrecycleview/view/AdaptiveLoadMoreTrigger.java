@@ -0,0 +1,171 @@
+package com.xie.rlrecycleview.view;
+
+/**
+ * Created by Anthony on 2019/3/14.
+ * Describe:
+ * 自适应的自动加载触发器
+ * 根据当前滑动速度和每个item的平均高度估算滑到底部的时间，
+ * 与最近几次加载的平均耗时(startLoadMore到finishLoadMore)比较，刚好来得及时才开始加载
+ * 开启后代替固定的loadMoreKey：快速滑动时比loadMoreKey更早加载，慢速滑动或停下时不会提前加载用户看不到的数据
+ */
+public class AdaptiveLoadMoreTrigger {
+    //平滑系数，越大越偏向最新的值
+    private static final float LATENCY_SMOOTH_FACTOR = 0.3F;
+    private static final float VELOCITY_SMOOTH_FACTOR = 0.5F;
+    private static final float ITEM_HEIGHT_SMOOTH_FACTOR = 0.2F;
+    //两次滑动间隔超过这个时间就认为是重新开始滑动
+    private static final long VELOCITY_RESET_TIME = 100;
+    //还没有加载记录时使用的默认耗时(ms)
+    private static final long DEFAULT_LOAD_LATENCY = 1000;
+
+    //提前量系数，估算时间小于平均耗时*系数就开始加载
+    private float safetyFactor = 1.2F;
+
+    //学习到的参数
+    private float averageLoadLatency = -1;//平均加载耗时(ms)
+    private float scrollVelocity = 0;//滑动速度(px/ms)
+    private float averageItemHeight = -1;//每个item平均占用的高度(px)
+    private float lastTimeToBottom = -1;//最后一次估算的到底时间(ms)
+
+    private long lastScrollTime = -1;
+    private long loadStartTime = -1;
+
+    /**
+     * 设置提前量系数
+     *
+     * @param safetyFactor 估算到底时间小于平均加载耗时*safetyFactor时开始加载，默认1.2
+     */
+    public void setSafetyFactor(float safetyFactor) {
+        this.safetyFactor = safetyFactor;
+    }
+
+    public float getSafetyFactor() {
+        return safetyFactor;
+    }
+
+    /**
+     * 获取平均加载耗时
+     *
+     * @return ms，还没有加载记录时返回-1
+     */
+    public float getAverageLoadLatency() {
+        return averageLoadLatency;
+    }
+
+    /**
+     * 获取当前滑动速度
+     *
+     * @return px/ms
+     */
+    public float getScrollVelocity() {
+        return scrollVelocity;
+    }
+
+    /**
+     * 获取每个item的平均高度
+     *
+     * @return px，还没有采样时返回-1
+     */
+    public float getAverageItemHeight() {
+        return averageItemHeight;
+    }
+
+    /**
+     * 获取最后一次估算的到底时间
+     *
+     * @return ms，无法估算时返回-1
+     */
+    public float getLastTimeToBottom() {
+        return lastTimeToBottom;
+    }
+
+    /**
+     * 记录一次滑动
+     *
+     * @param dy  主轴方向的滑动距离，横向列表为dx，向列表末尾滑动为正，反向为负
+     * @param now 当前时间(SystemClock.uptimeMillis)
+     */
+    void onScrolled(int dy, long now) {
+        if (lastScrollTime < 0 || now - lastScrollTime > VELOCITY_RESET_TIME) {
+            //中间停顿过，之前的速度已经没有参考价值
+            scrollVelocity = 0;
+            lastScrollTime = now;
+            return;
+        }
+        long dt = now - lastScrollTime;
+        if (dt == 0) return;
+        float velocity = (float) dy / dt;
+        scrollVelocity = scrollVelocity + (velocity - scrollVelocity) * VELOCITY_SMOOTH_FACTOR;
+        lastScrollTime = now;
+    }
+
+    /**
+     * 停止滑动
+     */
+    void onScrollIdle() {
+        scrollVelocity = 0;
+        lastScrollTime = -1;
+    }
+
+    /**
+     * 记录item平均高度
+     *
+     * @param visibleHeight    可见内容item占用的高度，不包含头部和尾部
+     * @param visibleItemCount 可见内容item数量
+     */
+    void onItemHeightSampled(int visibleHeight, int visibleItemCount) {
+        if (visibleHeight <= 0 || visibleItemCount <= 0) return;
+        float height = (float) visibleHeight / visibleItemCount;
+        if (averageItemHeight < 0) {
+            averageItemHeight = height;
+        } else {
+            averageItemHeight = averageItemHeight + (height - averageItemHeight) * ITEM_HEIGHT_SMOOTH_FACTOR;
+        }
+    }
+
+    void onLoadStart(long now) {
+        loadStartTime = now;
+    }
+
+    void onLoadFinish(long now) {
+        if (loadStartTime < 0) return;
+        float latency = now - loadStartTime;
+        loadStartTime = -1;
+        if (averageLoadLatency < 0) {
+            averageLoadLatency = latency;
+        } else {
+            averageLoadLatency = averageLoadLatency + (latency - averageLoadLatency) * LATENCY_SMOOTH_FACTOR;
+        }
+    }
+
+    void onLoadCancel() {
+        loadStartTime = -1;
+    }
+
+    /**
+     * 判断是否需要开始加载
+     *
+     * @param remainingItemCount 最后一个可见item之后还剩下的内容item数量
+     * @return 是否需要开始加载
+     */
+    boolean shouldLoad(int remainingItemCount) {
+        if (scrollVelocity <= 0 || averageItemHeight <= 0) {
+            lastTimeToBottom = -1;
+            return false;
+        }
+        lastTimeToBottom = remainingItemCount * averageItemHeight / scrollVelocity;
+        float latency = averageLoadLatency < 0 ? DEFAULT_LOAD_LATENCY : averageLoadLatency;
+        return lastTimeToBottom <= latency * safetyFactor;
+    }
+
+    @Override
+    public String toString() {
+        return "AdaptiveLoadMoreTrigger{" +
+                "averageLoadLatency=" + averageLoadLatency +
+                ", scrollVelocity=" + scrollVelocity +
+                ", averageItemHeight=" + averageItemHeight +
+                ", lastTimeToBottom=" + lastTimeToBottom +
+                ", safetyFactor=" + safetyFactor +
+                '}';
+    }
+}
@@ -10,16 +10,18 @@ import android.view.ViewGroup;
 /**
  * Created by iSmartGo-XIE on 2017/7/5.
  * 通用ViewHolder
+ * 也可以继承后用@BindItemView标记控件字段，编译时会生成 类名_Binding 子类，创建时一次性赋值
  */
 
 public class BaseRecyclerViewHolder extends RecyclerView.ViewHolder {
     private SparseArray<View> mViews;
     private View mConvertView;
+    //快速惯性滑动时只做了简单绑定，停止后需要重新完整绑定
+    boolean isLiteBound = false;
 
     public BaseRecyclerViewHolder(View itemView) {
         super(itemView);
         mConvertView = itemView;
-        mViews = new SparseArray<>();
     }
 
 
@@ -39,6 +41,8 @@ public class BaseRecyclerViewHolder extends RecyclerView.ViewHolder {
      * @return View
      */
     public <T extends View> T getView(int viewId) {
+        //第一次使用时才创建，生成的Binding子类不会用到
+        if (mViews == null) mViews = new SparseArray<>();
         View view = mViews.get(viewId);
         if (view == null) {
             view = mConvertView.findViewById(viewId);
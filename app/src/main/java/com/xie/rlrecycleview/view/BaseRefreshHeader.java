@@ -1,9 +1,9 @@
 package com.xie.rlrecycleview.view;
 
-import android.animation.Animator;
-import android.animation.ValueAnimator;
 import android.content.Context;
+import android.os.SystemClock;
 import android.support.annotation.NonNull;
+import android.support.v7.widget.RecyclerView;
 import android.util.AttributeSet;
 import android.view.View;
 import android.view.ViewGroup;
@@ -23,12 +23,76 @@ public abstract class BaseRefreshHeader extends RelativeLayout {
 
     //下拉高度超过90%就判定为需要刷新
     private final static double REFRESH_HEIGHT_FACTOR = 0.9;
+    //为了防止滑动幅度过大，将实际手指滑动的距离除以2.5
+    private final static double PULL_DRAG_RATE = 2.5;
+    private final static float DRAG_VELOCITY_SMOOTH_FACTOR = 0.5F;
+    //松手前超过这个时间没有移动就认为速度为0
+    private final static long DRAG_VELOCITY_RESET_TIME = 100;
 
-    private ValueAnimator releaseAnimator;
+    /**
+     * 线性阻力，手指移动的距离除以2.5，默认
+     */
+    public final static DragCurve DRAG_CURVE_LINEAR = new DragCurve() {
+        @Override
+        public double getPullOffset(double fingerOffset, double visibleHeight, int contentHeight) {
+            return fingerOffset / PULL_DRAG_RATE;
+        }
+    };
+
+    /**
+     * 越往下拉阻力越大，拉到内容高度时阻力是开始时的两倍，收起时与线性相同
+     */
+    public final static DragCurve DRAG_CURVE_RUBBER_BAND = new DragCurve() {
+        @Override
+        public double getPullOffset(double fingerOffset, double visibleHeight, int contentHeight) {
+            if (fingerOffset <= 0 || contentHeight <= 0) return fingerOffset / PULL_DRAG_RATE;
+            return fingerOffset / (PULL_DRAG_RATE * (1 + visibleHeight / contentHeight));
+        }
+    };
+
+    public interface DragCurve {
+        /**
+         * 把手指移动的距离换算成头部高度的变化
+         *
+         * @param fingerOffset  手指单次移动的距离，向下为正
+         * @param visibleHeight 当前显示高度
+         * @param contentHeight 刷新布局内容的高度
+         * @return 头部高度的变化
+         */
+        double getPullOffset(double fingerOffset, double visibleHeight, int contentHeight);
+    }
+
+    private final HeaderSpringAnimator releaseAnimator = new HeaderSpringAnimator(new HeaderSpringAnimator.OnSpringListener() {
+        @Override
+        public void onSpringUpdate(float value) {
+            setVisibleHeight((int) value);
+        }
+
+        @Override
+        public void onSpringEnd(boolean isCancel) {
+            if (isCancel) return;
+            commitVisibleHeight();
+            switch (state) {
+                case STATE_PREPARE_REFRESH:
+                    onRefreshing();
+                    break;
+                case STATE_REFRESH_FINISH:
+                    setRefreshNormal();
+                    break;
+            }
+        }
+    });
+    private DragCurve dragCurve = DRAG_CURVE_LINEAR;
+    //拖动时头部高度的变化速度(px/s)，松手后动画以这个速度开始
+    private float dragVelocity = 0;
+    private long lastMoveTime = -1;
     private int state = STATE_REFRESH_NORMAL;
     public double allOffset = 0;//当前总位移
     private View contentView;
-    private boolean isAnimatorCancel = false;
+    //拖动时只改变绘制位置，不重新布局
+    private boolean isDrawOnlyPull = false;
+    //实际布局的高度，只在手势结束后提交
+    private int layoutHeight = MIN_HEIGHT;
     //下拉刷新监听
     private RefreshLoadRecyclerAdapter.OnRefreshListener onRefreshListener;
 
@@ -60,10 +124,120 @@ public abstract class BaseRefreshHeader extends RelativeLayout {
      */
     void setVisibleHeight(double height) {
         if (height < MIN_HEIGHT) height = MIN_HEIGHT;
+        allOffset = height;
+        if (isDrawOnlyPull && offsetVisibleHeight((int) height)) return;
+        layoutHeight = (int) height;
+        if (isDrawOnlyPull) {
+            requestLayout();
+            return;
+        }
         ViewGroup.LayoutParams lp = contentView.getLayoutParams();
-        lp.height = (int) height;
+        lp.height = layoutHeight;
         contentView.setLayoutParams(lp);
-        allOffset = height;
+    }
+
+    /**
+     * 设置拖动时是否只改变绘制位置
+     * 开启后拖动和回弹过程中不会触发RecyclerView重新布局，
+     * 只移动Header的边界和下面的item，手势结束(刷新中或恢复正常)时才提交一次布局，
+     * 收起时如果底部会露出还没布局的item，改为重新布局
+     *
+     * @param drawOnlyPull 是否开启
+     */
+    public void setDrawOnlyPull(boolean drawOnlyPull) {
+        if (isDrawOnlyPull == drawOnlyPull) return;
+        isDrawOnlyPull = drawOnlyPull;
+        layoutHeight = (int) allOffset;
+        ViewGroup.LayoutParams lp = contentView.getLayoutParams();
+        //只改变绘制位置时内容按完整高度布局，再底部对齐
+        lp.height = drawOnlyPull ? ViewGroup.LayoutParams.WRAP_CONTENT : layoutHeight;
+        contentView.setLayoutParams(lp);
+    }
+
+    public boolean isDrawOnlyPull() {
+        return isDrawOnlyPull;
+    }
+
+    /**
+     * 设置下拉阻力曲线
+     *
+     * @param dragCurve 为null时使用DRAG_CURVE_LINEAR
+     */
+    public void setDragCurve(DragCurve dragCurve) {
+        this.dragCurve = dragCurve == null ? DRAG_CURVE_LINEAR : dragCurve;
+    }
+
+    /**
+     * 设置松手后回弹动画的弹簧参数
+     *
+     * @param stiffness    刚度，越大回弹越快，默认400
+     * @param dampingRatio 阻尼比，默认1(不越过目标)，小于1时会越过目标再弹回
+     */
+    public void setReleaseSpring(float stiffness, float dampingRatio) {
+        releaseAnimator.setSpring(stiffness, dampingRatio);
+    }
+
+    /**
+     * 不重新布局，直接移动Header的底部和下面的item
+     *
+     * @param height 显示高度
+     * @return 是否成功，Header不在RecyclerView中、正在等待布局或收起后底部会露出空白时返回false
+     */
+    private boolean offsetVisibleHeight(int height) {
+        if (!(getParent() instanceof RecyclerView) || isLayoutRequested()) return false;
+        int delta = height - getHeight();
+        if (delta == 0) return true;
+        RecyclerView parent = (RecyclerView) getParent();
+        if (delta < 0 && isBottomExposed(parent, delta)) return false;
+        int top = getTop();
+        parent.offsetChildrenVertical(delta);
+        //Header顶部不动，只有底部下移
+        setTop(top);
+        alignContentBottom();
+        parent.invalidate();
+        return true;
+    }
+
+    /**
+     * 收起时item整体上移，最后一个item后面还有数据但上移后没有填满列表底部时，需要重新布局补上
+     *
+     * @param parent RecyclerView
+     * @param delta  高度变化，小于0
+     * @return 是否会露出空白
+     */
+    private boolean isBottomExposed(RecyclerView parent, int delta) {
+        int childCount = parent.getChildCount();
+        if (childCount == 0 || parent.getAdapter() == null) return false;
+        View lastChild = parent.getChildAt(childCount - 1);
+        int lastPosition = parent.getChildAdapterPosition(lastChild);
+        if (lastPosition == RecyclerView.NO_POSITION || lastPosition >= parent.getAdapter().getItemCount() - 1)
+            return false;
+        return lastChild.getBottom() + delta < parent.getHeight() - parent.getPaddingBottom();
+    }
+
+    /**
+     * 提交实际布局高度
+     */
+    private void commitVisibleHeight() {
+        if (!isDrawOnlyPull || layoutHeight == (int) allOffset) return;
+        layoutHeight = (int) allOffset;
+        requestLayout();
+    }
+
+    private void alignContentBottom() {
+        contentView.offsetTopAndBottom(getHeight() - contentView.getBottom());
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+        if (isDrawOnlyPull) setMeasuredDimension(getMeasuredWidth(), layoutHeight);
+    }
+
+    @Override
+    protected void onLayout(boolean changed, int l, int t, int r, int b) {
+        super.onLayout(changed, l, t, r, b);
+        if (isDrawOnlyPull) alignContentBottom();
     }
 
     double getVisibleHeight() {
@@ -79,14 +253,17 @@ public abstract class BaseRefreshHeader extends RelativeLayout {
         if (state == STATE_PREPARE_REFRESH) {
             startRefresh();
         } else {
-            int height = contentView.getLayoutParams().height;
-            if (height == MIN_HEIGHT) return;
+            int height = (int) allOffset;
+            if (height == MIN_HEIGHT) {
+                commitVisibleHeight();
+                return;
+            }
             showHeightAnimator(height, MIN_HEIGHT);
         }
     }
 
     public void startRefresh() {
-        int startHeight = contentView.getLayoutParams().height;
+        int startHeight = (int) allOffset;
         if (startHeight == MIN_HEIGHT) return;
         int endHeight = getContentHeight();
         showHeightAnimator(startHeight, endHeight);
@@ -99,52 +276,18 @@ public abstract class BaseRefreshHeader extends RelativeLayout {
      * @param endHeight   endHeight
      */
     private void showHeightAnimator(float startHeight, float endHeight) {
-        if (releaseAnimator != null) releaseAnimator.cancel();
-        //不刷新，隐藏
-        releaseAnimator = ValueAnimator.ofFloat(startHeight, endHeight);
-        releaseAnimator.setDuration(200);
-        releaseAnimator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-            @Override
-            public void onAnimationUpdate(ValueAnimator animation) {
-                Float value = (Float) animation.getAnimatedValue();
-                setVisibleHeight(value.intValue());
-            }
-
-        });
-        releaseAnimator.addListener(new Animator.AnimatorListener() {
-            @Override
-            public void onAnimationStart(Animator animation) {
-
-            }
-
-            @Override
-            public void onAnimationEnd(Animator animation) {
-                if (!isAnimatorCancel) {
-                    switch (state) {
-                        case STATE_PREPARE_REFRESH:
-                            onRefreshing();
-                            break;
-                        case STATE_REFRESH_FINISH:
-                            setRefreshNormal();
-                            break;
-                    }
-                } else {
-                    isAnimatorCancel = false;
-                }
-            }
-
-            @Override
-            public void onAnimationCancel(Animator animation) {
-                isAnimatorCancel = true;
-            }
-
-            @Override
-            public void onAnimationRepeat(Animator animation) {
+        //刚松手时继承手指拖动的速度
+        float velocity = lastMoveTime >= 0 && SystemClock.uptimeMillis() - lastMoveTime <= DRAG_VELOCITY_RESET_TIME ? dragVelocity : 0;
+        dragVelocity = 0;
+        lastMoveTime = -1;
+        releaseAnimator.start(startHeight, endHeight, velocity);
+    }
 
-            }
-        });
-        //开启
-        releaseAnimator.start();
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        //离开窗口后不再占用Choreographer，直接完成动画，状态照常推进
+        releaseAnimator.end();
     }
 
     /**
@@ -154,9 +297,10 @@ public abstract class BaseRefreshHeader extends RelativeLayout {
      */
     public void onMove(double offSet) {
         if (state == STATE_REFRESHING || state == STATE_REFRESH_FINISH) return;
-        if (releaseAnimator != null && releaseAnimator.isStarted()) releaseAnimator.cancel();
+        if (releaseAnimator.isRunning()) releaseAnimator.cancel();
         double height = offSet + allOffset;
         if (getMaxHeight() != -1 && height > getMaxHeight()) height = getMaxHeight();
+        updateDragVelocity(Math.max(height, MIN_HEIGHT) - allOffset);
         setVisibleHeight(height);
         if (allOffset >= getContentHeight() * REFRESH_HEIGHT_FACTOR) {
 //            Log.i("testMsg", "onMove1: state:" + state +" allOffset:"+ allOffset);
@@ -171,6 +315,27 @@ public abstract class BaseRefreshHeader extends RelativeLayout {
         }
     }
 
+    /**
+     * 手指拖动，按阻力曲线换算后移动
+     *
+     * @param fingerOffset 手指单次移动的距离，向下为正
+     */
+    public void onPull(double fingerOffset) {
+        onMove(dragCurve.getPullOffset(fingerOffset, allOffset, getContentHeight()));
+    }
+
+    private void updateDragVelocity(double offset) {
+        long now = SystemClock.uptimeMillis();
+        long dt = now - lastMoveTime;
+        if (lastMoveTime < 0 || dt > DRAG_VELOCITY_RESET_TIME) {
+            dragVelocity = 0;
+        } else if (dt > 0) {
+            float velocity = (float) (offset * 1000 / dt);
+            dragVelocity = dragVelocity + (velocity - dragVelocity) * DRAG_VELOCITY_SMOOTH_FACTOR;
+        }
+        lastMoveTime = now;
+    }
+
     protected void setRefreshNormal() {
         state = STATE_REFRESH_NORMAL;
     }
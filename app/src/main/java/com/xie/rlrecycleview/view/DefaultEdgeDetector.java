@@ -0,0 +1,79 @@
+package com.xie.rlrecycleview.view;
+
+import android.support.annotation.NonNull;
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
+import android.support.v7.widget.StaggeredGridLayoutManager;
+import android.view.View;
+
+/**
+ * Created by Anthony on 2019/4/22.
+ * Describe:
+ * 默认的可见item查找
+ * LinearLayoutManager(包括GridLayoutManager)直接查找
+ * StaggeredGridLayoutManager复用同一个数组，取所有列的最小值/最大值
+ * 其他LayoutManager遍历已经布局的子View，子View可能包含屏幕外预布局的item
+ */
+public class DefaultEdgeDetector implements RefreshLoadEdgeDetector {
+    //StaggeredGridLayoutManager每列的结果，列数变化时才重新分配
+    private int[] spanPositions = new int[0];
+
+    @Override
+    public int findFirstVisibleItemPosition(@NonNull RecyclerView recyclerView) {
+        RecyclerView.LayoutManager layoutManager = recyclerView.getLayoutManager();
+        if (layoutManager instanceof LinearLayoutManager) {
+            return ((LinearLayoutManager) layoutManager).findFirstVisibleItemPosition();
+        }
+        if (layoutManager instanceof StaggeredGridLayoutManager) {
+            StaggeredGridLayoutManager staggeredGridLayoutManager = (StaggeredGridLayoutManager) layoutManager;
+            int[] positions = obtainSpanPositions(staggeredGridLayoutManager.getSpanCount());
+            staggeredGridLayoutManager.findFirstVisibleItemPositions(positions);
+            int first = RecyclerView.NO_POSITION;
+            for (int position : positions) {
+                if (position != RecyclerView.NO_POSITION && (first == RecyclerView.NO_POSITION || position < first))
+                    first = position;
+            }
+            return first;
+        }
+        int first = RecyclerView.NO_POSITION;
+        for (int i = 0, count = layoutManager == null ? 0 : layoutManager.getChildCount(); i < count; i++) {
+            View child = layoutManager.getChildAt(i);
+            int position = child == null ? RecyclerView.NO_POSITION : layoutManager.getPosition(child);
+            if (position != RecyclerView.NO_POSITION && (first == RecyclerView.NO_POSITION || position < first))
+                first = position;
+        }
+        return first;
+    }
+
+    @Override
+    public int findLastVisibleItemPosition(@NonNull RecyclerView recyclerView) {
+        RecyclerView.LayoutManager layoutManager = recyclerView.getLayoutManager();
+        if (layoutManager instanceof LinearLayoutManager) {
+            return ((LinearLayoutManager) layoutManager).findLastVisibleItemPosition();
+        }
+        if (layoutManager instanceof StaggeredGridLayoutManager) {
+            StaggeredGridLayoutManager staggeredGridLayoutManager = (StaggeredGridLayoutManager) layoutManager;
+            int[] positions = obtainSpanPositions(staggeredGridLayoutManager.getSpanCount());
+            staggeredGridLayoutManager.findLastVisibleItemPositions(positions);
+            int last = RecyclerView.NO_POSITION;
+            for (int position : positions) {
+                if (position > last) last = position;
+            }
+            return last;
+        }
+        int last = RecyclerView.NO_POSITION;
+        for (int i = 0, count = layoutManager == null ? 0 : layoutManager.getChildCount(); i < count; i++) {
+            View child = layoutManager.getChildAt(i);
+            int position = child == null ? RecyclerView.NO_POSITION : layoutManager.getPosition(child);
+            if (position > last) last = position;
+        }
+        return last;
+    }
+
+    private int[] obtainSpanPositions(int spanCount) {
+        if (spanPositions.length != spanCount) {
+            spanPositions = new int[spanCount];
+        }
+        return spanPositions;
+    }
+}
@@ -0,0 +1,121 @@
+package com.xie.rlrecycleview.view;
+
+import android.view.Choreographer;
+
+/**
+ * Created by Anthony on 2019/4/28.
+ * Describe:
+ * 刷新头部高度的弹簧动画
+ * 由Choreographer逐帧驱动，同一个实例反复使用，每帧不分配对象
+ * 可以带初速度开始，松手时继承手指的速度
+ */
+class HeaderSpringAnimator implements Choreographer.FrameCallback {
+    //积分步长(s)，固定步长保证不同帧率下结果一致
+    private static final float STEP = 0.004F;
+    //卡顿后最多补算的时间(s)，防止跳变
+    private static final float MAX_FRAME_TIME = 0.032F;
+    //距离和速度都小于阈值时结束
+    private static final float POSITION_THRESHOLD = 0.5F;
+    private static final float VELOCITY_THRESHOLD = 20F;
+
+    interface OnSpringListener {
+        void onSpringUpdate(float value);
+
+        /**
+         * @param isCancel 是否被cancel打断
+         */
+        void onSpringEnd(boolean isCancel);
+    }
+
+    private final OnSpringListener listener;
+    private Choreographer choreographer;
+    private float stiffness = 400F;
+    private float dampingRatio = 1F;
+
+    private float value;
+    private float velocity;//px/s
+    private float target;
+    private long lastFrameTimeNanos;
+    private boolean isRunning = false;
+
+    HeaderSpringAnimator(OnSpringListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * @param stiffness    刚度，越大越快
+     * @param dampingRatio 阻尼比，1为刚好不回弹，小于1会越过目标再弹回
+     */
+    void setSpring(float stiffness, float dampingRatio) {
+        this.stiffness = stiffness;
+        this.dampingRatio = dampingRatio;
+    }
+
+    /**
+     * 开始动画，正在运行时直接改变目标，保留当前位置和速度
+     *
+     * @param start    开始值，正在运行时忽略
+     * @param target   目标值
+     * @param velocity 初速度(px/s)，正在运行时忽略
+     */
+    void start(float start, float target, float velocity) {
+        this.target = target;
+        //正在运行时从当前位置和速度继续，忽略start和velocity
+        if (isRunning) return;
+        this.value = start;
+        this.velocity = velocity;
+        isRunning = true;
+        lastFrameTimeNanos = System.nanoTime();
+        if (choreographer == null) choreographer = Choreographer.getInstance();
+        choreographer.postFrameCallback(this);
+    }
+
+    void cancel() {
+        if (!isRunning) return;
+        isRunning = false;
+        choreographer.removeFrameCallback(this);
+        listener.onSpringEnd(true);
+    }
+
+    /**
+     * 直接跳到目标值并正常结束，不再等待后续帧
+     */
+    void end() {
+        if (!isRunning) return;
+        isRunning = false;
+        choreographer.removeFrameCallback(this);
+        value = target;
+        velocity = 0;
+        listener.onSpringUpdate(value);
+        listener.onSpringEnd(false);
+    }
+
+    boolean isRunning() {
+        return isRunning;
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!isRunning) return;
+        float frameTime = Math.min((frameTimeNanos - lastFrameTimeNanos) / 1e9F, MAX_FRAME_TIME);
+        lastFrameTimeNanos = frameTimeNanos;
+        float damping = 2 * dampingRatio * (float) Math.sqrt(stiffness);
+        //半隐式欧拉积分
+        for (float time = 0; time < frameTime; time += STEP) {
+            float step = Math.min(STEP, frameTime - time);
+            float acceleration = -stiffness * (value - target) - damping * velocity;
+            velocity += acceleration * step;
+            value += velocity * step;
+        }
+        if (Math.abs(value - target) < POSITION_THRESHOLD && Math.abs(velocity) < VELOCITY_THRESHOLD) {
+            value = target;
+            velocity = 0;
+            isRunning = false;
+            listener.onSpringUpdate(value);
+            listener.onSpringEnd(false);
+            return;
+        }
+        listener.onSpringUpdate(value);
+        choreographer.postFrameCallback(this);
+    }
+}
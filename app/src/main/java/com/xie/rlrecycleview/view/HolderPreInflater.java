@@ -0,0 +1,206 @@
+package com.xie.rlrecycleview.view;
+
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.support.annotation.LayoutRes;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.v4.view.AsyncLayoutInflater;
+import android.util.SparseArray;
+import android.util.SparseIntArray;
+import android.view.View;
+import android.view.ViewGroup;
+
+import java.util.ArrayList;
+
+/**
+ * Created by Anthony on 2019/3/28.
+ * Describe:
+ * 预先创建ViewHolder，onCreateViewHolder时优先使用预先创建好的
+ * 设置了布局的类型在后台线程inflate，再通过onCreateViewHolderFromView创建Holder，
+ * 其他类型在主线程空闲时通过onCreateViewHolderNew创建，每次空闲只创建一个
+ */
+class HolderPreInflater implements MessageQueue.IdleHandler {
+    //同时在后台inflate的上限，AsyncLayoutInflater的请求队列只有10个，排满后提交会阻塞主线程
+    private static final int MAX_PENDING_INFLATE = 8;
+
+    private final RefreshLoadRecyclerAdapter adapter;
+    //每种类型需要预先创建的数量
+    private final SparseIntArray targetCounts = new SparseIntArray();
+    //后台inflate使用的布局
+    private final SparseIntArray layoutIds = new SparseIntArray();
+    //正在后台inflate的数量
+    private final SparseIntArray pendingCounts = new SparseIntArray();
+    private int totalPendingCount = 0;
+    //已经创建好的Holder
+    private final SparseArray<ArrayList<BaseRecyclerViewHolder>> parkedHolders = new SparseArray<>();
+    private ViewGroup parent;
+    private AsyncLayoutInflater asyncLayoutInflater;
+    private boolean isIdleHandlerAdded = false;
+    //内存不足时暂停，重新start之前不再创建
+    private boolean isPaused = false;
+
+    HolderPreInflater(@NonNull RefreshLoadRecyclerAdapter adapter) {
+        this.adapter = adapter;
+    }
+
+    /**
+     * 设置某种类型需要预先创建的数量，在主线程空闲时通过onCreateViewHolderNew创建
+     *
+     * @param viewType viewType
+     * @param count    数量
+     */
+    void setCount(int viewType, int count) {
+        targetCounts.put(viewType, count);
+        layoutIds.delete(viewType);
+        schedule();
+    }
+
+    /**
+     * 设置某种类型需要预先创建的数量，在后台线程inflate布局，
+     * 只适用于onCreateViewHolderNew中使用BaseRecyclerViewHolder.createViewHolder创建的类型
+     *
+     * @param viewType viewType
+     * @param layoutId 布局
+     * @param count    数量
+     */
+    void setLayout(int viewType, @LayoutRes int layoutId, int count) {
+        targetCounts.put(viewType, count);
+        layoutIds.put(viewType, layoutId);
+        schedule();
+    }
+
+    /**
+     * 开始预先创建，列表设置Adapter后调用
+     *
+     * @param parent 创建Holder使用的parent
+     */
+    void start(@NonNull ViewGroup parent) {
+        this.parent = parent;
+        isPaused = false;
+        schedule();
+    }
+
+    /**
+     * 恢复因内存不足暂停的预先创建
+     */
+    void resume() {
+        if (!isPaused) return;
+        isPaused = false;
+        schedule();
+    }
+
+    /**
+     * 停止预先创建并释放已经创建好的Holder
+     */
+    void stop() {
+        if (isIdleHandlerAdded) {
+            Looper.myQueue().removeIdleHandler(this);
+            isIdleHandlerAdded = false;
+        }
+        parent = null;
+        parkedHolders.clear();
+    }
+
+    /**
+     * 内存不足时释放已经创建好的Holder，暂停预先创建，列表重新可见时通过resume恢复
+     *
+     * @return 释放的Holder数量
+     */
+    int release() {
+        isPaused = true;
+        if (isIdleHandlerAdded) {
+            Looper.myQueue().removeIdleHandler(this);
+            isIdleHandlerAdded = false;
+        }
+        int count = 0;
+        for (int i = 0; i < parkedHolders.size(); i++) {
+            count += parkedHolders.valueAt(i).size();
+        }
+        parkedHolders.clear();
+        return count;
+    }
+
+    /**
+     * 取出一个预先创建好的Holder
+     *
+     * @param viewType viewType
+     * @return 没有时返回null
+     */
+    @Nullable
+    BaseRecyclerViewHolder obtain(int viewType) {
+        ArrayList<BaseRecyclerViewHolder> holders = parkedHolders.get(viewType);
+        if (holders == null || holders.isEmpty()) return null;
+        return holders.remove(holders.size() - 1);
+    }
+
+    /**
+     * 获取已经创建好的Holder数量
+     *
+     * @param viewType viewType
+     * @return 数量
+     */
+    int getParkedCount(int viewType) {
+        ArrayList<BaseRecyclerViewHolder> holders = parkedHolders.get(viewType);
+        return holders == null ? 0 : holders.size();
+    }
+
+    @Override
+    public boolean queueIdle() {
+        if (parent == null) {
+            isIdleHandlerAdded = false;
+            return false;
+        }
+        for (int i = 0; i < targetCounts.size(); i++) {
+            int viewType = targetCounts.keyAt(i);
+            int missing = targetCounts.valueAt(i) - getParkedCount(viewType) - pendingCounts.get(viewType);
+            if (missing <= 0) continue;
+            if (layoutIds.indexOfKey(viewType) >= 0) {
+                //后台inflate，不超过队列上限，剩下的在完成后继续提交
+                for (int j = 0; j < missing && totalPendingCount < MAX_PENDING_INFLATE; j++) {
+                    inflateAsync(viewType, layoutIds.get(viewType));
+                }
+                continue;
+            }
+            //主线程空闲时创建一个，剩下的等下次空闲
+            park(viewType, adapter.onCreateViewHolderNew(parent, viewType));
+            return true;
+        }
+        isIdleHandlerAdded = false;
+        return false;
+    }
+
+    private void inflateAsync(final int viewType, int layoutId) {
+        if (asyncLayoutInflater == null) asyncLayoutInflater = new AsyncLayoutInflater(parent.getContext());
+        pendingCounts.put(viewType, pendingCounts.get(viewType) + 1);
+        totalPendingCount++;
+        asyncLayoutInflater.inflate(layoutId, parent, new AsyncLayoutInflater.OnInflateFinishedListener() {
+            @Override
+            public void onInflateFinished(@NonNull View view, int resid, @Nullable ViewGroup parent) {
+                pendingCounts.put(viewType, pendingCounts.get(viewType) - 1);
+                totalPendingCount--;
+                //已经停止或暂停
+                if (HolderPreInflater.this.parent == null || isPaused) return;
+                park(viewType, adapter.onCreateViewHolderFromView(view, viewType));
+                //提交因为队列上限没有提交的部分
+                schedule();
+            }
+        });
+    }
+
+    private void park(int viewType, BaseRecyclerViewHolder holder) {
+        if (holder == null) return;
+        ArrayList<BaseRecyclerViewHolder> holders = parkedHolders.get(viewType);
+        if (holders == null) {
+            holders = new ArrayList<>();
+            parkedHolders.put(viewType, holders);
+        }
+        holders.add(holder);
+    }
+
+    private void schedule() {
+        if (parent == null || isPaused || isIdleHandlerAdded || targetCounts.size() == 0) return;
+        Looper.myQueue().addIdleHandler(this);
+        isIdleHandlerAdded = true;
+    }
+}
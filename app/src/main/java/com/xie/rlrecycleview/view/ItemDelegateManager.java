@@ -0,0 +1,144 @@
+package com.xie.rlrecycleview.view;
+
+import android.support.annotation.NonNull;
+import android.support.v7.widget.RecyclerView;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Created by Anthony on 2019/5/6.
+ * Describe:
+ * ItemViewDelegate的注册表
+ * viewType按delegate类分配，整个进程内同一个delegate类的viewType固定，不同的类不会重复，
+ * 多个Adapter共用RecycledViewPool时同一个viewType一定是同一种Holder；
+ * 通过以viewType为下标的数组直接找到delegate，
+ * item类到viewType的对应关系缓存在Map中，子类第一次出现时沿着父类查找一次
+ */
+@SuppressWarnings("unchecked")
+class ItemDelegateManager {
+    //delegate类数量上限，保证viewType不会进入头部和尾部的保留区间
+    static final int MAX_DELEGATE_COUNT = 100000;
+
+    //所有Adapter共用的delegate类到viewType的分配
+    private static final Map<Class<?>, Integer> sDelegateTypes = new HashMap<>();
+
+    //下标就是viewType，没有注册的为null
+    private ItemViewDelegate[] delegates = new ItemViewDelegate[8];
+    //注册的viewType，按注册顺序
+    private final List<Integer> registeredTypes = new ArrayList<>();
+    //item类对应的viewType，多个时按注册顺序
+    private final Map<Class<?>, int[]> classTypes = new HashMap<>();
+    //通过父类或接口找到的类，注册新的delegate时需要重新查找
+    private final List<Class<?>> inheritedClasses = new ArrayList<>();
+    //最后一次查询的结果，大多数列表只有一两种类型
+    private Class<?> lastClass;
+    private int[] lastTypes;
+
+    /**
+     * 获取delegate类的viewType，第一次出现时分配
+     */
+    static int obtainViewType(@NonNull Class<?> delegateClass) {
+        synchronized (sDelegateTypes) {
+            Integer viewType = sDelegateTypes.get(delegateClass);
+            if (viewType != null) return viewType;
+            if (sDelegateTypes.size() >= MAX_DELEGATE_COUNT)
+                throw new IllegalStateException("ItemViewDelegate的类过多，最多" + MAX_DELEGATE_COUNT + "个");
+            viewType = sDelegateTypes.size();
+            sDelegateTypes.put(delegateClass, viewType);
+            return viewType;
+        }
+    }
+
+    <T> int register(@NonNull Class<T> itemClass, @NonNull ItemViewDelegate<T, ?> delegate) {
+        int viewType = obtainViewType(delegate.getClass());
+        if (viewType >= delegates.length) {
+            ItemViewDelegate[] newDelegates = new ItemViewDelegate[Math.max(viewType + 1, delegates.length * 2)];
+            System.arraycopy(delegates, 0, newDelegates, 0, delegates.length);
+            delegates = newDelegates;
+        }
+        if (delegates[viewType] != null)
+            throw new IllegalStateException(delegate.getClass().getName() + "已经注册过，同一个ItemViewDelegate类只能注册一次");
+        delegates[viewType] = delegate;
+        registeredTypes.add(viewType);
+        //之前沿父类查找缓存的子类结果可能已经过期
+        dropInheritedTypes();
+        int[] types = classTypes.get(itemClass);
+        int[] newTypes;
+        if (types == null) {
+            newTypes = new int[]{viewType};
+        } else {
+            newTypes = new int[types.length + 1];
+            System.arraycopy(types, 0, newTypes, 0, types.length);
+            newTypes[types.length] = viewType;
+        }
+        classTypes.put(itemClass, newTypes);
+        lastClass = null;
+        lastTypes = null;
+        return viewType;
+    }
+
+    ItemViewDelegate getDelegate(int viewType) {
+        ItemViewDelegate delegate = viewType >= 0 && viewType < delegates.length ? delegates[viewType] : null;
+        if (delegate == null)
+            throw new IllegalStateException("没有viewType为" + viewType + "的ItemViewDelegate");
+        return delegate;
+    }
+
+    int getItemViewType(Object item, int position) {
+        if (item == null) throw new IllegalStateException("position为" + position + "的item为null，无法选择ItemViewDelegate");
+        int[] types = findTypes(item.getClass());
+        if (types.length == 1) return types[0];
+        for (int type : types) {
+            if (delegates[type].isForItem(item, position)) return type;
+        }
+        throw new IllegalStateException("没有处理" + item.getClass().getName() + "(position为" + position + ")的ItemViewDelegate");
+    }
+
+    /**
+     * 把每个delegate建议的缓存数量设置到RecycledViewPool
+     */
+    void applyPoolCapacities(@NonNull RecyclerView.RecycledViewPool viewPool) {
+        for (int i = 0; i < registeredTypes.size(); i++) {
+            int viewType = registeredTypes.get(i);
+            int capacity = delegates[viewType].getPoolCapacity();
+            if (capacity > 0) viewPool.setMaxRecycledViews(viewType, capacity);
+        }
+    }
+
+    private int[] findTypes(Class<?> itemClass) {
+        if (itemClass == lastClass) return lastTypes;
+        int[] types = classTypes.get(itemClass);
+        if (types == null) {
+            types = findInheritedTypes(itemClass);
+            if (types == null)
+                throw new IllegalStateException("没有注册" + itemClass.getName() + "的ItemViewDelegate");
+            classTypes.put(itemClass, types);
+            inheritedClasses.add(itemClass);
+        }
+        lastClass = itemClass;
+        lastTypes = types;
+        return types;
+    }
+
+    private int[] findInheritedTypes(Class<?> itemClass) {
+        for (Class<?> c = itemClass; c != null; c = c.getSuperclass()) {
+            int[] types = classTypes.get(c);
+            if (types != null) return types;
+            for (Class<?> i : c.getInterfaces()) {
+                types = classTypes.get(i);
+                if (types != null) return types;
+            }
+        }
+        return null;
+    }
+
+    private void dropInheritedTypes() {
+        for (Class<?> c : inheritedClasses) {
+            classTypes.remove(c);
+        }
+        inheritedClasses.clear();
+    }
+}
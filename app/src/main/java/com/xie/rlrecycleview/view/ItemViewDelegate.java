@@ -0,0 +1,78 @@
+package com.xie.rlrecycleview.view;
+
+import android.support.annotation.NonNull;
+import android.view.ViewGroup;
+
+import java.util.List;
+
+/**
+ * Created by Anthony on 2019/5/6.
+ * Describe:
+ * 一种item的创建和绑定，通过RefreshLoadDelegateAdapter.registerDelegate注册
+ * viewType按delegate类分配，同一个delegate类创建的Holder类型必须相同
+ *
+ * @param <T>  item类型
+ * @param <VH> holder类型
+ */
+public abstract class ItemViewDelegate<T, VH extends BaseRecyclerViewHolder> {
+    /**
+     * 代替onCreateViewHolderNew
+     *
+     * @param parent parent
+     * @return holder
+     */
+    @NonNull
+    public abstract VH onCreateViewHolder(@NonNull ViewGroup parent);
+
+    /**
+     * 代替onBindViewHolderNew
+     *
+     * @param holder   holder
+     * @param item     item
+     * @param position 内容position，不包含头部
+     */
+    public abstract void onBindViewHolder(@NonNull VH holder, @NonNull T item, int position);
+
+    /**
+     * 局部刷新，默认完整绑定
+     *
+     * @param holder   holder
+     * @param item     item
+     * @param position 内容position，不包含头部
+     * @param payloads payloads，不会为空
+     */
+    public void onBindViewHolder(@NonNull VH holder, @NonNull T item, int position, @NonNull List<Object> payloads) {
+        onBindViewHolder(holder, item, position);
+    }
+
+    /**
+     * 快速惯性滑动时的简单绑定，默认完整绑定
+     *
+     * @param holder   holder
+     * @param item     item
+     * @param position 内容position，不包含头部
+     */
+    public void onBindViewHolderLite(@NonNull VH holder, @NonNull T item, int position) {
+        onBindViewHolder(holder, item, position);
+    }
+
+    /**
+     * 同一个item类注册了多个delegate时，按注册顺序返回第一个匹配的
+     *
+     * @param item     item
+     * @param position 内容position，不包含头部
+     * @return 是否由这个delegate处理
+     */
+    public boolean isForItem(@NonNull T item, int position) {
+        return true;
+    }
+
+    /**
+     * 建议的RecycledViewPool缓存数量，一屏可见数量较多的类型可以设置大一些
+     *
+     * @return 小于等于0时使用RecycledViewPool的默认值
+     */
+    public int getPoolCapacity() {
+        return 0;
+    }
+}
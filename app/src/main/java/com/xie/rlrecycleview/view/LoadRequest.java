@@ -0,0 +1,96 @@
+package com.xie.rlrecycleview.view;
+
+import android.support.annotation.Nullable;
+
+/**
+ * Created by Anthony on 2019/4/12.
+ * Describe:
+ * 一次加载更多或下拉刷新请求
+ * 每次下拉刷新都会开始新的一代，旧一代未完成的请求会被取消，取消后结果不会再被Adapter接受
+ * 可以通过setOnCancelListener把取消传递给自己的线程池或网络请求
+ */
+public class LoadRequest {
+    public static final int TYPE_LOAD_MORE = 1;
+    public static final int TYPE_REFRESH = 2;
+    public static final int TYPE_LOAD_PREVIOUS = 3;
+
+    private final int type;
+    private final int generation;
+    private volatile boolean isCancelled = false;
+    private OnCancelListener onCancelListener;
+
+    public interface OnCancelListener {
+        /**
+         * 请求被取消，在取消请求的线程回调(一般是主线程)
+         *
+         * @param request request
+         */
+        void onCancel(LoadRequest request);
+    }
+
+    LoadRequest(int type, int generation) {
+        this.type = type;
+        this.generation = generation;
+    }
+
+    /**
+     * 获取请求类型
+     *
+     * @return {@link #TYPE_LOAD_MORE}、{@link #TYPE_REFRESH}或{@link #TYPE_LOAD_PREVIOUS}
+     */
+    public int getType() {
+        return type;
+    }
+
+    /**
+     * 获取请求所属的代，每次下拉刷新加一
+     *
+     * @return generation
+     */
+    public int getGeneration() {
+        return generation;
+    }
+
+    /**
+     * 是否已经被取消，后台任务可以据此提前结束
+     *
+     * @return boolean
+     */
+    public boolean isCancelled() {
+        return isCancelled;
+    }
+
+    /**
+     * 设置取消监听，已经取消时马上回调
+     *
+     * @param onCancelListener onCancelListener
+     */
+    public void setOnCancelListener(@Nullable OnCancelListener onCancelListener) {
+        boolean isCallNow;
+        synchronized (this) {
+            this.onCancelListener = onCancelListener;
+            isCallNow = isCancelled && onCancelListener != null;
+        }
+        if (isCallNow) onCancelListener.onCancel(this);
+    }
+
+    void cancel() {
+        OnCancelListener listener;
+        synchronized (this) {
+            if (isCancelled) return;
+            isCancelled = true;
+            listener = onCancelListener;
+            onCancelListener = null;
+        }
+        if (listener != null) listener.onCancel(this);
+    }
+
+    @Override
+    public String toString() {
+        return "LoadRequest{" +
+                "type=" + type +
+                ", generation=" + generation +
+                ", isCancelled=" + isCancelled +
+                '}';
+    }
+}
@@ -0,0 +1,140 @@
+package com.xie.rlrecycleview.view;
+
+/**
+ * Created by Anthony on 2019/4/25.
+ * Describe:
+ * 根据滑动方向和速度计算即将出现的内容范围，回调OnPrefetchListener
+ * 同一方向上只回调新增的部分，方向反转时取消还没有出现的部分
+ * 所有position都是内容position，不包含头部
+ */
+class PrefetchDispatcher {
+    private static final float VELOCITY_SMOOTH_FACTOR = 0.5F;
+    //两次滑动间隔超过这个时间就认为是重新开始滑动
+    private static final long VELOCITY_RESET_TIME = 100;
+    //按当前速度预取这段时间内会出现的item(ms)
+    private static final long LOOKAHEAD_TIME = 500;
+
+    private RefreshLoadRecyclerAdapter.OnPrefetchListener onPrefetchListener;
+    private int minPrefetchCount = 4;
+    private int maxPrefetchCount = 30;
+
+    private float scrollVelocity = 0;//px/ms
+    private long lastScrollTime = -1;
+    //当前方向，1向后，-1向前，0未滑动
+    private int direction = 0;
+    //已经回调过的范围[requestedStart, requestedEnd)
+    private int requestedStart = 0;
+    private int requestedEnd = 0;
+
+    void setOnPrefetchListener(RefreshLoadRecyclerAdapter.OnPrefetchListener onPrefetchListener) {
+        this.onPrefetchListener = onPrefetchListener;
+        reset();
+    }
+
+    RefreshLoadRecyclerAdapter.OnPrefetchListener getOnPrefetchListener() {
+        return onPrefetchListener;
+    }
+
+    void setPrefetchCount(int minPrefetchCount, int maxPrefetchCount) {
+        this.minPrefetchCount = Math.max(minPrefetchCount, 0);
+        this.maxPrefetchCount = Math.max(maxPrefetchCount, this.minPrefetchCount);
+    }
+
+    /**
+     * 记录一次滑动
+     *
+     * @param delta        滑动距离，正数表示向后(往列表末尾)
+     * @param firstVisible 第一个可见的内容position，可能小于0(头部可见)
+     * @param lastVisible  最后一个可见的内容position，可能大于等于realCount(尾部可见)
+     * @param viewportSize 可见区域大小
+     * @param realCount    内容数量
+     * @param now          当前时间(SystemClock.uptimeMillis)
+     */
+    void onScrolled(int delta, int firstVisible, int lastVisible, int viewportSize, int realCount, long now) {
+        if (delta == 0 || onPrefetchListener == null) return;
+        updateVelocity(Math.abs(delta), now);
+        int newDirection = delta > 0 ? 1 : -1;
+        if (newDirection != direction) {
+            cancel(firstVisible, lastVisible);
+            direction = newDirection;
+        }
+        //速度越快预取越多
+        int visibleCount = Math.max(lastVisible - firstVisible + 1, 1);
+        float itemSize = Math.max((float) viewportSize / visibleCount, 1);
+        int prefetchCount = minPrefetchCount + Math.round(scrollVelocity * LOOKAHEAD_TIME / itemSize);
+        prefetchCount = Math.min(prefetchCount, maxPrefetchCount);
+        boolean hasRequested = requestedStart < requestedEnd;
+        if (direction > 0) {
+            int start = Math.max(lastVisible + 1, 0);
+            int end = Math.min(start + prefetchCount, realCount);
+            //跳过已经回调过的部分
+            if (hasRequested && start >= requestedStart) start = Math.max(start, requestedEnd);
+            if (start >= end) return;
+            if (!hasRequested || start > requestedEnd) requestedStart = start;
+            requestedEnd = end;
+            onPrefetchListener.onPrefetch(start, end);
+        } else {
+            int end = Math.min(firstVisible, realCount);
+            int start = Math.max(end - prefetchCount, 0);
+            if (hasRequested && end <= requestedEnd) end = Math.min(end, requestedStart);
+            if (start >= end) return;
+            if (!hasRequested || end < requestedStart) requestedEnd = end;
+            requestedStart = start;
+            onPrefetchListener.onPrefetch(start, end);
+        }
+    }
+
+    /**
+     * 停止滑动，已经回调的范围保留，之后继续同方向滑动时不会重复回调
+     */
+    void onScrollIdle() {
+        scrollVelocity = 0;
+        lastScrollTime = -1;
+    }
+
+    /**
+     * 内容发生变化，之前的position已经失效
+     */
+    void reset() {
+        direction = 0;
+        requestedStart = 0;
+        requestedEnd = 0;
+        onScrollIdle();
+    }
+
+    /**
+     * 在position之前插入了内容
+     *
+     * @param position 内容position
+     */
+    void onContentInserted(int position) {
+        //只在已回调范围之后插入时(例如加载更多)保留
+        if (position < requestedEnd) reset();
+    }
+
+    /**
+     * 取消还没有出现的部分
+     */
+    private void cancel(int firstVisible, int lastVisible) {
+        if (requestedStart < requestedEnd && onPrefetchListener != null) {
+            int start = direction > 0 ? Math.max(requestedStart, lastVisible + 1) : requestedStart;
+            int end = direction > 0 ? requestedEnd : Math.min(requestedEnd, firstVisible);
+            if (start < end) onPrefetchListener.onPrefetchCancel(start, end);
+        }
+        requestedStart = 0;
+        requestedEnd = 0;
+    }
+
+    private void updateVelocity(int distance, long now) {
+        if (lastScrollTime < 0 || now - lastScrollTime > VELOCITY_RESET_TIME) {
+            lastScrollTime = now;
+            scrollVelocity = 0;
+            return;
+        }
+        long dt = now - lastScrollTime;
+        if (dt == 0) return;
+        float velocity = (float) distance / dt;
+        scrollVelocity = scrollVelocity + (velocity - scrollVelocity) * VELOCITY_SMOOTH_FACTOR;
+        lastScrollTime = now;
+    }
+}
@@ -0,0 +1,81 @@
+package com.xie.rlrecycleview.view;
+
+import android.content.Context;
+import android.support.annotation.NonNull;
+import android.support.v7.util.DiffUtil;
+import android.support.v7.widget.RecyclerView;
+import android.view.ViewGroup;
+
+import java.util.List;
+
+/**
+ * Created by Anthony on 2019/5/6.
+ * Describe:
+ * 通过ItemViewDelegate创建和绑定item的RefreshLoadListAdapter
+ * 每种item注册一个delegate，不需要再在onCreateViewHolderNew等方法中写switch
+ * viewType由delegate类决定，多个Adapter共用RecycledViewPool时同一个delegate类的Holder可以复用
+ *
+ * @param <T> item类型，多种item时使用它们共同的父类或接口
+ */
+@SuppressWarnings("unchecked")
+public class RefreshLoadDelegateAdapter<T> extends RefreshLoadListAdapter<T> {
+    private final ItemDelegateManager delegateManager = new ItemDelegateManager();
+    private RecyclerView attachedRecyclerView;
+
+    public RefreshLoadDelegateAdapter(Context context, @NonNull DiffUtil.ItemCallback<T> diffCallback) {
+        super(context, diffCallback);
+    }
+
+    /**
+     * 注册一种item的ItemViewDelegate，同一个delegate类只能注册一次
+     * 同一个item类可以注册多个delegate，按注册顺序通过ItemViewDelegate.isForItem选择
+     *
+     * @param itemClass item类，子类和接口的实现类也会使用这个delegate
+     * @param delegate  delegate
+     * @return 分配的viewType，同一个delegate类在所有Adapter中相同
+     */
+    public <E extends T> int registerDelegate(@NonNull Class<E> itemClass, @NonNull ItemViewDelegate<E, ?> delegate) {
+        int viewType = delegateManager.register(itemClass, delegate);
+        if (attachedRecyclerView != null && delegate.getPoolCapacity() > 0)
+            attachedRecyclerView.getRecycledViewPool().setMaxRecycledViews(viewType, delegate.getPoolCapacity());
+        return viewType;
+    }
+
+    @Override
+    protected BaseRecyclerViewHolder onCreateViewHolderNew(ViewGroup parent, int viewType) {
+        return delegateManager.getDelegate(viewType).onCreateViewHolder(parent);
+    }
+
+    @Override
+    protected int getItemViewTypeNew(int position) {
+        return delegateManager.getItemViewType(getItem(position), position);
+    }
+
+    @Override
+    protected void onBindViewHolderNew(BaseRecyclerViewHolder holder, int position) {
+        delegateManager.getDelegate(holder.getItemViewType()).onBindViewHolder(holder, getItem(position), position);
+    }
+
+    @Override
+    protected void onBindViewHolderNew(BaseRecyclerViewHolder holder, int position, @NonNull List<Object> payloads) {
+        delegateManager.getDelegate(holder.getItemViewType()).onBindViewHolder(holder, getItem(position), position, payloads);
+    }
+
+    @Override
+    protected void onBindViewHolderLite(BaseRecyclerViewHolder holder, int position) {
+        delegateManager.getDelegate(holder.getItemViewType()).onBindViewHolderLite(holder, getItem(position), position);
+    }
+
+    @Override
+    public void onAttachedToRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onAttachedToRecyclerView(recyclerView);
+        attachedRecyclerView = recyclerView;
+        delegateManager.applyPoolCapacities(recyclerView.getRecycledViewPool());
+    }
+
+    @Override
+    public void onDetachedFromRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onDetachedFromRecyclerView(recyclerView);
+        if (attachedRecyclerView == recyclerView) attachedRecyclerView = null;
+    }
+}
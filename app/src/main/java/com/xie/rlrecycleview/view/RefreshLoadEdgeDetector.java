@@ -0,0 +1,30 @@
+package com.xie.rlrecycleview.view;
+
+import android.support.annotation.NonNull;
+import android.support.v7.widget.RecyclerView;
+
+/**
+ * Created by Anthony on 2019/4/22.
+ * Describe:
+ * 查找第一个和最后一个可见item，用于判断是否到顶、是否需要加载更多或向前加载
+ * 默认实现为DefaultEdgeDetector，使用自定义LayoutManager时可以通过
+ * RefreshLoadRecyclerView.setEdgeDetector设置自己的实现
+ * 每次布局或滑动之后最多调用一次，结果由RefreshLoadRecyclerView缓存
+ */
+public interface RefreshLoadEdgeDetector {
+    /**
+     * 查找第一个可见item，多列时取所有列中最小的
+     *
+     * @param recyclerView recyclerView，LayoutManager不为null
+     * @return adapter position(包含头部)，没有可见item时返回RecyclerView.NO_POSITION
+     */
+    int findFirstVisibleItemPosition(@NonNull RecyclerView recyclerView);
+
+    /**
+     * 查找最后一个可见item，多列时取所有列中最大的
+     *
+     * @param recyclerView recyclerView，LayoutManager不为null
+     * @return adapter position(包含头部)，没有可见item时返回RecyclerView.NO_POSITION
+     */
+    int findLastVisibleItemPosition(@NonNull RecyclerView recyclerView);
+}
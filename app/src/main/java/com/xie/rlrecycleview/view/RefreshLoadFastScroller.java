@@ -0,0 +1,323 @@
+package com.xie.rlrecycleview.view;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.support.annotation.ColorInt;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
+import android.support.v7.widget.StaggeredGridLayoutManager;
+import android.view.MotionEvent;
+import android.view.View;
+
+/**
+ * Created by Anthony on 2019/5/14.
+ * Describe:
+ * 竖直列表的快速滑动条
+ * 拖动时直接让LayoutManager跳到对应的内容position，中间的item不会被绑定，也不会触发加载更多
+ * 内容总高度根据滑动时采样的item平均高度估算，不测量所有item
+ * 设置RefreshLoadSectionIndex后拖动时在滑动条左侧显示当前分组
+ */
+public class RefreshLoadFastScroller extends RecyclerView.ItemDecoration implements RecyclerView.OnItemTouchListener {
+    private static final float ITEM_HEIGHT_SMOOTH_FACTOR = 0.2F;
+    //停止滑动后多久隐藏(ms)
+    private static final long HIDE_DELAY = 1500;
+    //内容估算高度至少有这么多屏时才显示
+    private static final int MIN_PAGE_COUNT = 4;
+
+    private final RefreshLoadRecyclerAdapter refreshLoadRecyclerAdapter;
+    private RefreshLoadRecyclerView recyclerView;
+    private RefreshLoadSectionIndex sectionIndex;
+
+    private final Paint thumbPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint bubblePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint textPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final RectF thumbRect = new RectF();
+    private final int thumbWidth;
+    private final int minThumbHeight;
+    private final int touchWidth;
+    private final int bubbleRadius;
+
+    //采样得到的每个item平均占用的高度
+    private float averageItemHeight = -1;
+    private boolean isVisible = false;
+    private boolean isDragging = false;
+    //拖动时的位置比例和对应的分组
+    private float dragFraction = 0;
+    private int dragSection = -1;
+    private int lastJumpPosition = RecyclerView.NO_POSITION;
+
+    private final Runnable hideRunnable = new Runnable() {
+        @Override
+        public void run() {
+            if (isDragging) return;
+            isVisible = false;
+            if (recyclerView != null) recyclerView.invalidate();
+        }
+    };
+
+    private final RecyclerView.OnScrollListener onScrollListener = new RecyclerView.OnScrollListener() {
+        @Override
+        public void onScrollStateChanged(@NonNull RecyclerView recyclerView, int newState) {
+            if (newState == RecyclerView.SCROLL_STATE_IDLE) {
+                recyclerView.removeCallbacks(hideRunnable);
+                recyclerView.postDelayed(hideRunnable, HIDE_DELAY);
+            }
+        }
+
+        @Override
+        public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+            sampleItemHeight(recyclerView);
+            if (dy != 0 && !isVisible) {
+                isVisible = true;
+                recyclerView.removeCallbacks(hideRunnable);
+            }
+        }
+    };
+
+    public RefreshLoadFastScroller(@NonNull Context context, @NonNull RefreshLoadRecyclerAdapter refreshLoadRecyclerAdapter) {
+        this.refreshLoadRecyclerAdapter = refreshLoadRecyclerAdapter;
+        float density = context.getResources().getDisplayMetrics().density;
+        thumbWidth = (int) (6 * density);
+        minThumbHeight = (int) (48 * density);
+        touchWidth = (int) (32 * density);
+        bubbleRadius = (int) (32 * density);
+        thumbPaint.setColor(0x99000000);
+        bubblePaint.setColor(0xCC000000);
+        textPaint.setColor(Color.WHITE);
+        textPaint.setTextAlign(Paint.Align.CENTER);
+        textPaint.setTextSize(24 * density);
+    }
+
+    public void attachToRecyclerView(@NonNull RefreshLoadRecyclerView recyclerView) {
+        if (this.recyclerView == recyclerView) return;
+        detachFromRecyclerView();
+        this.recyclerView = recyclerView;
+        recyclerView.addItemDecoration(this);
+        recyclerView.addOnItemTouchListener(this);
+        recyclerView.addOnScrollListener(onScrollListener);
+    }
+
+    public void detachFromRecyclerView() {
+        if (recyclerView == null) return;
+        endDrag();
+        recyclerView.removeCallbacks(hideRunnable);
+        recyclerView.removeItemDecoration(this);
+        recyclerView.removeOnItemTouchListener(this);
+        recyclerView.removeOnScrollListener(onScrollListener);
+        recyclerView = null;
+    }
+
+    /**
+     * 设置分组索引，拖动时显示当前分组的key
+     *
+     * @param sectionIndex 为null时不显示
+     */
+    public void setSectionIndex(@Nullable RefreshLoadSectionIndex sectionIndex) {
+        this.sectionIndex = sectionIndex;
+    }
+
+    public void setThumbColor(@ColorInt int color) {
+        thumbPaint.setColor(color);
+    }
+
+    public void setBubbleColor(@ColorInt int color) {
+        bubblePaint.setColor(color);
+    }
+
+    public void setBubbleTextColor(@ColorInt int color) {
+        textPaint.setColor(color);
+    }
+
+    @Override
+    public void onDrawOver(@NonNull Canvas c, @NonNull RecyclerView parent, @NonNull RecyclerView.State state) {
+        if (!isVisible && !isDragging) return;
+        if (!updateThumbRect(parent)) return;
+        float radius = thumbWidth / 2F;
+        c.drawRoundRect(thumbRect, radius, radius, thumbPaint);
+        if (!isDragging || sectionIndex == null || dragSection < 0 || dragSection >= sectionIndex.getSectionCount())
+            return;
+        //分组提示，圆心与滑动条中间对齐，不超出列表
+        float cx = thumbRect.left - bubbleRadius - thumbWidth;
+        float cy = Math.max(thumbRect.centerY(), parent.getPaddingTop() + bubbleRadius);
+        cy = Math.min(cy, parent.getHeight() - parent.getPaddingBottom() - bubbleRadius);
+        c.drawCircle(cx, cy, bubbleRadius, bubblePaint);
+        String text = String.valueOf(sectionIndex.getSectionKey(dragSection));
+        c.drawText(text, cx, cy - (textPaint.descent() + textPaint.ascent()) / 2, textPaint);
+    }
+
+    @Override
+    public boolean onInterceptTouchEvent(@NonNull RecyclerView rv, @NonNull MotionEvent e) {
+        if (e.getActionMasked() == MotionEvent.ACTION_DOWN && isVisible && isInThumbTouchArea(rv, e.getX(), e.getY())) {
+            startDrag(rv);
+            dragTo(rv, e.getY());
+            return true;
+        }
+        return isDragging;
+    }
+
+    @Override
+    public void onTouchEvent(@NonNull RecyclerView rv, @NonNull MotionEvent e) {
+        if (!isDragging) return;
+        switch (e.getActionMasked()) {
+            case MotionEvent.ACTION_MOVE:
+                dragTo(rv, e.getY());
+                break;
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_CANCEL:
+                endDrag();
+                break;
+        }
+    }
+
+    @Override
+    public void onRequestDisallowInterceptTouchEvent(boolean disallowIntercept) {
+    }
+
+    private boolean isInThumbTouchArea(RecyclerView rv, float x, float y) {
+        if (!updateThumbRect(rv)) return false;
+        return x >= rv.getWidth() - rv.getPaddingRight() - touchWidth
+                && y >= thumbRect.top - touchWidth / 2F && y <= thumbRect.bottom + touchWidth / 2F;
+    }
+
+    private void startDrag(RecyclerView rv) {
+        isDragging = true;
+        lastJumpPosition = RecyclerView.NO_POSITION;
+        rv.stopScroll();
+        rv.removeCallbacks(hideRunnable);
+        if (rv.getParent() != null) rv.getParent().requestDisallowInterceptTouchEvent(true);
+        if (recyclerView != null) recyclerView.setFastScrolling(true);
+    }
+
+    private void endDrag() {
+        if (!isDragging) return;
+        isDragging = false;
+        dragSection = -1;
+        if (recyclerView == null) return;
+        recyclerView.setFastScrolling(false);
+        recyclerView.removeCallbacks(hideRunnable);
+        recyclerView.postDelayed(hideRunnable, HIDE_DELAY);
+        recyclerView.invalidate();
+    }
+
+    /**
+     * 按手指位置跳到对应的内容position
+     */
+    private void dragTo(RecyclerView rv, float y) {
+        int realCount = refreshLoadRecyclerAdapter.getRealItemCount();
+        if (realCount <= 0) return;
+        float thumbHeight = thumbRect.height();
+        float trackTop = rv.getPaddingTop();
+        float trackLength = rv.getHeight() - rv.getPaddingBottom() - trackTop - thumbHeight;
+        if (trackLength <= 0) return;
+        dragFraction = Math.max(0, Math.min(1, (y - trackTop - thumbHeight / 2) / trackLength));
+        //和getScrollFraction使用同样的滑动范围，松手后滑动条不会跳动，拖到底部时最后一屏完整显示
+        int contentPosition = Math.min(realCount - 1, Math.round(dragFraction * getScrollRange(rv, realCount)));
+        if (sectionIndex != null) dragSection = sectionIndex.getSectionForPosition(contentPosition);
+        if (contentPosition != lastJumpPosition) {
+            lastJumpPosition = contentPosition;
+            jumpTo(rv, contentPosition + refreshLoadRecyclerAdapter.getHeadersCount());
+        }
+        rv.invalidate();
+    }
+
+    /**
+     * 不经过中间的item，直接布局目标位置
+     */
+    private void jumpTo(RecyclerView rv, int position) {
+        RecyclerView.LayoutManager layoutManager = rv.getLayoutManager();
+        if (layoutManager instanceof LinearLayoutManager) {
+            ((LinearLayoutManager) layoutManager).scrollToPositionWithOffset(position, 0);
+        } else if (layoutManager instanceof StaggeredGridLayoutManager) {
+            ((StaggeredGridLayoutManager) layoutManager).scrollToPositionWithOffset(position, 0);
+        } else if (layoutManager != null) {
+            layoutManager.scrollToPosition(position);
+        }
+    }
+
+    /**
+     * 计算滑动条位置
+     *
+     * @return 内容太少不需要显示时返回false
+     */
+    private boolean updateThumbRect(RecyclerView rv) {
+        int realCount = refreshLoadRecyclerAdapter.getRealItemCount();
+        if (realCount <= 0 || averageItemHeight <= 0) return false;
+        int trackTop = rv.getPaddingTop();
+        int trackLength = rv.getHeight() - rv.getPaddingBottom() - trackTop;
+        float contentHeight = realCount * averageItemHeight;
+        if (trackLength <= 0 || contentHeight < trackLength * MIN_PAGE_COUNT) return false;
+        float thumbHeight = Math.max(minThumbHeight, trackLength * trackLength / contentHeight);
+        float fraction = isDragging ? dragFraction : getScrollFraction(rv, realCount);
+        float top = trackTop + fraction * (trackLength - thumbHeight);
+        float right = rv.getWidth() - rv.getPaddingRight();
+        thumbRect.set(right - thumbWidth, top, right, top + thumbHeight);
+        return true;
+    }
+
+    /**
+     * 根据第一个可见内容item和它滑出的部分估算滑动比例
+     */
+    private float getScrollFraction(RecyclerView rv, int realCount) {
+        int firstPosition = RecyclerView.NO_POSITION;
+        View firstChild = null;
+        for (int i = 0, count = rv.getChildCount(); i < count; i++) {
+            View child = rv.getChildAt(i);
+            int position = getContentPosition(child, realCount);
+            if (position >= 0 && (firstPosition == RecyclerView.NO_POSITION || position < firstPosition)) {
+                firstPosition = position;
+                firstChild = child;
+            }
+        }
+        if (firstChild == null) return 0;
+        float scrolled = firstPosition;
+        if (firstChild.getHeight() > 0)
+            scrolled += Math.max(0, Math.min(1, (float) (rv.getPaddingTop() - firstChild.getTop()) / firstChild.getHeight()));
+        float scrollRange = getScrollRange(rv, realCount);
+        if (scrollRange <= 0) return 0;
+        return Math.max(0, Math.min(1, scrolled / scrollRange));
+    }
+
+    /**
+     * 可以滑动的item数量，即第一个可见item的position范围，最后一屏的item不占滑动范围
+     */
+    private float getScrollRange(RecyclerView rv, int realCount) {
+        if (averageItemHeight <= 0) return realCount - 1;
+        int trackLength = rv.getHeight() - rv.getPaddingBottom() - rv.getPaddingTop();
+        return Math.max(0, realCount - trackLength / averageItemHeight);
+    }
+
+    /**
+     * 采样可见内容item的平均高度，多列时按行分摊
+     */
+    private void sampleItemHeight(RecyclerView rv) {
+        int realCount = refreshLoadRecyclerAdapter.getRealItemCount();
+        int top = Integer.MAX_VALUE;
+        int bottom = Integer.MIN_VALUE;
+        int count = 0;
+        for (int i = 0, childCount = rv.getChildCount(); i < childCount; i++) {
+            View child = rv.getChildAt(i);
+            if (getContentPosition(child, realCount) < 0) continue;
+            top = Math.min(top, child.getTop());
+            bottom = Math.max(bottom, child.getBottom());
+            count++;
+        }
+        if (count == 0 || bottom <= top) return;
+        float height = (float) (bottom - top) / count;
+        if (averageItemHeight < 0) {
+            averageItemHeight = height;
+        } else {
+            averageItemHeight = averageItemHeight + (height - averageItemHeight) * ITEM_HEIGHT_SMOOTH_FACTOR;
+        }
+    }
+
+    private int getContentPosition(View child, int realCount) {
+        int position = ((RecyclerView.LayoutParams) child.getLayoutParams()).getViewLayoutPosition()
+                - refreshLoadRecyclerAdapter.getHeadersCount();
+        return position < realCount ? position : -1;
+    }
+}
@@ -0,0 +1,339 @@
+package com.xie.rlrecycleview.view;
+
+import android.content.Context;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.v7.util.DiffUtil;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Created by Anthony on 2019/3/12.
+ * Describe:
+ * 基于List数据的RefreshLoadRecyclerAdapter
+ * 通过submitList替换数据，差异在后台线程计算，计算完成后在主线程发送局部刷新通知
+ * 通知的position会自动加上getHeadersCount()，刷新头部、自定义头部和加载更多尾部不受影响
+ */
+public abstract class RefreshLoadListAdapter<T> extends RefreshLoadRecyclerAdapter {
+    //默认的差异计算线程池，所有实例共用
+    private static Executor sDiffExecutor;
+    //数据变化后延迟保存快照，合并连续的变化
+    private static final long SNAPSHOT_SAVE_DELAY = 1000;
+    private static final String KEY_LOADED_PAGE_COUNT = "RefreshLoadListAdapter.loadedPageCount";
+    private static final String KEY_NEXT_PAGE_CURSOR = "RefreshLoadListAdapter.nextPageCursor";
+
+    private final DiffUtil.ItemCallback<T> diffCallback;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private Executor diffExecutor;
+
+    //当前显示的数据，只在主线程替换
+    private List<T> list = Collections.emptyList();
+    //最后一次提交的版本号，用于丢弃过期的差异计算结果
+    private int maxScheduledGeneration;
+    //正在计算差异的新数据
+    private List<T> pendingList;
+    //差异计算期间提交的向前加载的数据，在差异生效后插入到最前面
+    private List<T> pendingPreviousItems;
+
+    //本地快照
+    private RefreshLoadSnapshotCache<T> snapshotCache;
+    //每页的数量，用于计算已加载的页数，0表示不分页
+    private int pageSize = 0;
+    private final Runnable saveSnapshotRunnable = new Runnable() {
+        @Override
+        public void run() {
+            if (snapshotCache != null) snapshotCache.save(list);
+        }
+    };
+
+    public RefreshLoadListAdapter(Context context, @NonNull DiffUtil.ItemCallback<T> diffCallback) {
+        super(context);
+        this.diffCallback = diffCallback;
+    }
+
+    /**
+     * 设置差异计算使用的线程池，默认使用共用的后台线程池
+     *
+     * @param diffExecutor diffExecutor
+     */
+    public void setDiffExecutor(@Nullable Executor diffExecutor) {
+        this.diffExecutor = diffExecutor;
+    }
+
+    /**
+     * 提交新数据
+     *
+     * @param newList 新数据，提交后不要再修改该List
+     */
+    public void submitList(@Nullable List<T> newList) {
+        submitList(newList, null);
+    }
+
+    /**
+     * 提交新数据
+     *
+     * @param newList        新数据，提交后不要再修改该List
+     * @param commitCallback 新数据生效后在主线程回调，被后续提交覆盖时不会回调
+     */
+    public void submitList(@Nullable final List<T> newList, @Nullable final Runnable commitCallback) {
+        if (newList == list) {
+            if (commitCallback != null) commitCallback.run();
+            return;
+        }
+        final int runGeneration = ++maxScheduledGeneration;
+        pendingList = null;
+        //排队的向前加载属于被替换的数据，例如刷新后不能再插到新数据前面
+        pendingPreviousItems = null;
+        //清空
+        if (newList == null || newList.isEmpty()) {
+            int count = list.size();
+            list = Collections.emptyList();
+            if (count > 0) getContentUpdateCallback().onRemoved(0, count);
+            onListCommitted();
+            if (commitCallback != null) commitCallback.run();
+            return;
+        }
+        //原来没有数据，直接插入
+        if (list.isEmpty()) {
+            list = newList;
+            getContentUpdateCallback().onInserted(0, newList.size());
+            onListCommitted();
+            if (commitCallback != null) commitCallback.run();
+            return;
+        }
+        final List<T> oldList = list;
+        pendingList = newList;
+        getDiffExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                final DiffUtil.DiffResult result = DiffUtil.calculateDiff(new DiffUtil.Callback() {
+                    @Override
+                    public int getOldListSize() {
+                        return oldList.size();
+                    }
+
+                    @Override
+                    public int getNewListSize() {
+                        return newList.size();
+                    }
+
+                    @Override
+                    public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+                        T oldItem = oldList.get(oldItemPosition);
+                        T newItem = newList.get(newItemPosition);
+                        if (oldItem != null && newItem != null) {
+                            return diffCallback.areItemsTheSame(oldItem, newItem);
+                        }
+                        return oldItem == null && newItem == null;
+                    }
+
+                    @Override
+                    public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+                        T oldItem = oldList.get(oldItemPosition);
+                        T newItem = newList.get(newItemPosition);
+                        if (oldItem != null && newItem != null) {
+                            return diffCallback.areContentsTheSame(oldItem, newItem);
+                        }
+                        return oldItem == null && newItem == null;
+                    }
+
+                    @Nullable
+                    @Override
+                    public Object getChangePayload(int oldItemPosition, int newItemPosition) {
+                        T oldItem = oldList.get(oldItemPosition);
+                        T newItem = newList.get(newItemPosition);
+                        if (oldItem != null && newItem != null) {
+                            return diffCallback.getChangePayload(oldItem, newItem);
+                        }
+                        return null;
+                    }
+                });
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        //期间有新的提交，丢弃这次结果
+                        if (maxScheduledGeneration != runGeneration) return;
+                        pendingList = null;
+                        list = newList;
+                        result.dispatchUpdatesTo(getContentUpdateCallback());
+                        commitPendingPreviousItems();
+                        onListCommitted();
+                        if (commitCallback != null) commitCallback.run();
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * 在最前面插入一页数据，不做差异计算，并保持当前可见item的位置不动
+     * 用于向前加载，有数据正在计算差异时等差异生效后再插入
+     *
+     * @param page 插入的数据
+     */
+    public void submitPreviousPage(@NonNull List<T> page) {
+        if (page.isEmpty()) return;
+        //还有数据在计算差异，等差异生效后再插入，不打断那次提交和它的回调
+        if (pendingList != null) {
+            List<T> previousItems = new ArrayList<>(page);
+            if (pendingPreviousItems != null) previousItems.addAll(pendingPreviousItems);
+            pendingPreviousItems = previousItems;
+            return;
+        }
+        insertPreviousItems(page);
+        onListCommitted();
+    }
+
+    private void commitPendingPreviousItems() {
+        if (pendingPreviousItems == null) return;
+        List<T> previousItems = pendingPreviousItems;
+        pendingPreviousItems = null;
+        insertPreviousItems(previousItems);
+    }
+
+    private void insertPreviousItems(List<T> items) {
+        List<T> newList = new ArrayList<>(items.size() + list.size());
+        newList.addAll(items);
+        newList.addAll(list);
+        list = newList;
+        notifyContentInsertedAbove(items.size());
+    }
+
+    /**
+     * 设置本地快照，设置后数据变化时会自动保存
+     *
+     * @param snapshotCache snapshotCache
+     */
+    public void setSnapshotCache(@Nullable RefreshLoadSnapshotCache<T> snapshotCache) {
+        this.snapshotCache = snapshotCache;
+    }
+
+    /**
+     * 读取本地快照并马上显示，然后通过refresh()走下拉刷新的监听重新获取数据
+     * 需要在设置刷新监听之后、提交数据之前调用
+     */
+    public void restoreSnapshot() {
+        if (snapshotCache == null) {
+            refresh();
+            return;
+        }
+        snapshotCache.load(new RefreshLoadSnapshotCache.OnSnapshotLoadListener<T>() {
+            @Override
+            public void onSnapshotLoaded(@NonNull List<T> items) {
+                //期间已经有了数据，不再使用快照
+                if (!items.isEmpty() && list.isEmpty() && pendingList == null) {
+                    submitList(items);
+                }
+                refresh();
+            }
+        });
+    }
+
+    private void onListCommitted() {
+        if (snapshotCache == null) return;
+        mainHandler.removeCallbacks(saveSnapshotRunnable);
+        mainHandler.postDelayed(saveSnapshotRunnable, SNAPSHOT_SAVE_DELAY);
+    }
+
+    /**
+     * 设置每页的数量，设置后Activity重建时会保存已加载的页数
+     *
+     * @param pageSize 每页的数量
+     */
+    public void setPageSize(int pageSize) {
+        this.pageSize = Math.max(pageSize, 0);
+    }
+
+    /**
+     * 获取已加载的页数，没有设置每页的数量时返回0
+     */
+    public int getLoadedPageCount() {
+        return pageSize <= 0 ? 0 : (list.size() + pageSize - 1) / pageSize;
+    }
+
+    /**
+     * 保存加载进度时获取下一页的游标，不使用游标分页时返回null
+     *
+     * @return 下一页的游标
+     */
+    @Nullable
+    protected String getNextPageCursor() {
+        return null;
+    }
+
+    /**
+     * Activity重建后按保存的进度重新加载数据，例如重新请求前loadedPageCount页，加载完成后submitList
+     * 返回true时列表恢复“没有更多了”的状态并滚动到保存的位置
+     *
+     * @param loadedPageCount 保存时已加载的页数，没有设置每页的数量时为0
+     * @param nextPageCursor  保存时getNextPageCursor返回的游标
+     * @param anchorPosition  保存时第一个可见的内容position，没有时为-1
+     * @return 是否已经开始恢复，默认false
+     */
+    protected boolean onRestorePages(int loadedPageCount, @Nullable String nextPageCursor, int anchorPosition) {
+        return false;
+    }
+
+    /**
+     * 保存已加载的页数和下一页的游标，不保存item本身
+     */
+    @Override
+    protected void onSaveLoadState(@NonNull Bundle outState) {
+        outState.putInt(KEY_LOADED_PAGE_COUNT, getLoadedPageCount());
+        outState.putString(KEY_NEXT_PAGE_CURSOR, getNextPageCursor());
+    }
+
+    /**
+     * 数据没有丢失时(例如屏幕旋转后Adapter还在)不做处理，否则交给onRestorePages重新加载
+     */
+    @Override
+    protected boolean onRestoreLoadState(@NonNull Bundle savedState, int anchorPosition) {
+        if (!list.isEmpty() || pendingList != null) return true;
+        int loadedPageCount = savedState.getInt(KEY_LOADED_PAGE_COUNT, 0);
+        String nextPageCursor = savedState.getString(KEY_NEXT_PAGE_CURSOR);
+        if (loadedPageCount == 0 && nextPageCursor == null) return false;
+        return onRestorePages(loadedPageCount, nextPageCursor, anchorPosition);
+    }
+
+    /**
+     * 获取当前显示的数据
+     *
+     * @return 只读List
+     */
+    @NonNull
+    public List<T> getCurrentList() {
+        return Collections.unmodifiableList(list);
+    }
+
+    /**
+     * 获取内容Item
+     *
+     * @param position 内容position，不包含头部
+     * @return item
+     */
+    public T getItem(int position) {
+        return list.get(position);
+    }
+
+    @Override
+    protected int getRealItemCount() {
+        return list.size();
+    }
+
+    private Executor getDiffExecutor() {
+        if (diffExecutor != null) return diffExecutor;
+        synchronized (RefreshLoadListAdapter.class) {
+            if (sDiffExecutor == null) {
+                sDiffExecutor = Executors.newFixedThreadPool(2);
+            }
+        }
+        return sDiffExecutor;
+    }
+}
@@ -0,0 +1,285 @@
+package com.xie.rlrecycleview.view;
+
+import android.os.Trace;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.SparseArray;
+import android.view.Choreographer;
+
+/**
+ * Created by Anthony on 2019/4/2.
+ * Describe:
+ * 列表性能统计
+ * 按类型统计onCreateViewHolderNew和onBindViewHolderNew的耗时，统计滑动过程中超时的帧数，
+ * 并输出Trace区块，可以在Perfetto/Systrace中查看
+ * 耗时记录在固定分桶的直方图中，记录过程不分配内存
+ */
+public class RefreshLoadMetrics implements Choreographer.FrameCallback {
+    //默认帧耗时预算(ns)，60Hz
+    private static final long DEFAULT_FRAME_BUDGET_NANOS = 16_666_667L;
+
+    private final SparseArray<TypeMetrics> typeMetrics = new SparseArray<>();
+    private OnMetricsListener onMetricsListener;
+
+    //帧统计
+    private long frameBudgetNanos = DEFAULT_FRAME_BUDGET_NANOS;
+    private boolean isFrameMonitoring = false;
+    private long lastFrameTimeNanos = -1;
+    private int frameCount = 0;
+    private int jankFrameCount = 0;
+    private int droppedFrameCount = 0;
+
+    public interface OnMetricsListener {
+        /**
+         * 每次滑动停止时回调，回调中读取数据后可调用reset清空
+         *
+         * @param metrics metrics
+         */
+        void onMetrics(@NonNull RefreshLoadMetrics metrics);
+    }
+
+    public void setOnMetricsListener(@Nullable OnMetricsListener onMetricsListener) {
+        this.onMetricsListener = onMetricsListener;
+    }
+
+    /**
+     * 设置每帧耗时预算，超过就算作卡顿帧
+     *
+     * @param frameBudgetNanos 纳秒，默认16.67ms
+     */
+    public void setFrameBudgetNanos(long frameBudgetNanos) {
+        this.frameBudgetNanos = frameBudgetNanos;
+    }
+
+    /**
+     * 获取统计过的类型数量
+     *
+     * @return 数量
+     */
+    public int getViewTypeCount() {
+        return typeMetrics.size();
+    }
+
+    /**
+     * 获取统计过的类型
+     *
+     * @param index 0到getViewTypeCount()-1
+     * @return viewType
+     */
+    public int getViewTypeAt(int index) {
+        return typeMetrics.keyAt(index);
+    }
+
+    /**
+     * 获取某种类型的创建耗时
+     *
+     * @param viewType viewType
+     * @return 没有记录时返回null
+     */
+    @Nullable
+    public LatencyHistogram getCreateHistogram(int viewType) {
+        TypeMetrics metrics = typeMetrics.get(viewType);
+        return metrics == null ? null : metrics.create;
+    }
+
+    /**
+     * 获取某种类型的绑定耗时
+     *
+     * @param viewType viewType
+     * @return 没有记录时返回null
+     */
+    @Nullable
+    public LatencyHistogram getBindHistogram(int viewType) {
+        TypeMetrics metrics = typeMetrics.get(viewType);
+        return metrics == null ? null : metrics.bind;
+    }
+
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * 获取超过预算的帧数
+     *
+     * @return 帧数
+     */
+    public int getJankFrameCount() {
+        return jankFrameCount;
+    }
+
+    /**
+     * 获取估算的掉帧数
+     *
+     * @return 帧数
+     */
+    public int getDroppedFrameCount() {
+        return droppedFrameCount;
+    }
+
+    /**
+     * 清空所有统计
+     */
+    public void reset() {
+        for (int i = 0; i < typeMetrics.size(); i++) {
+            typeMetrics.valueAt(i).create.reset();
+            typeMetrics.valueAt(i).bind.reset();
+        }
+        frameCount = 0;
+        jankFrameCount = 0;
+        droppedFrameCount = 0;
+    }
+
+    long beginCreate(int viewType) {
+        Trace.beginSection(getTypeMetrics(viewType).createSection);
+        return System.nanoTime();
+    }
+
+    void endCreate(int viewType, long startNanos) {
+        getTypeMetrics(viewType).create.record(System.nanoTime() - startNanos);
+        Trace.endSection();
+    }
+
+    long beginBind(int viewType) {
+        Trace.beginSection(getTypeMetrics(viewType).bindSection);
+        return System.nanoTime();
+    }
+
+    void endBind(int viewType, long startNanos) {
+        getTypeMetrics(viewType).bind.record(System.nanoTime() - startNanos);
+        Trace.endSection();
+    }
+
+    /**
+     * 开始滑动，开始统计帧耗时
+     */
+    void startFrameMonitor() {
+        if (isFrameMonitoring) return;
+        isFrameMonitoring = true;
+        lastFrameTimeNanos = -1;
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    /**
+     * 停止滑动，停止统计帧耗时并回调
+     */
+    void stopFrameMonitor() {
+        if (!isFrameMonitoring) return;
+        isFrameMonitoring = false;
+        Choreographer.getInstance().removeFrameCallback(this);
+        if (onMetricsListener != null) onMetricsListener.onMetrics(this);
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!isFrameMonitoring) return;
+        if (lastFrameTimeNanos > 0) {
+            long frameNanos = frameTimeNanos - lastFrameTimeNanos;
+            frameCount++;
+            if (frameNanos > frameBudgetNanos) {
+                jankFrameCount++;
+                droppedFrameCount += (int) (frameNanos / frameBudgetNanos) - 1;
+            }
+        }
+        lastFrameTimeNanos = frameTimeNanos;
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    private TypeMetrics getTypeMetrics(int viewType) {
+        TypeMetrics metrics = typeMetrics.get(viewType);
+        if (metrics == null) {
+            //每种类型只创建一次
+            metrics = new TypeMetrics(viewType);
+            typeMetrics.put(viewType, metrics);
+        }
+        return metrics;
+    }
+
+    private static class TypeMetrics {
+        final LatencyHistogram create = new LatencyHistogram();
+        final LatencyHistogram bind = new LatencyHistogram();
+        //Trace名称提前拼好，避免每次分配
+        final String createSection;
+        final String bindSection;
+
+        TypeMetrics(int viewType) {
+            createSection = "RLRecyclerView.create#" + viewType;
+            bindSection = "RLRecyclerView.bind#" + viewType;
+        }
+    }
+
+    /**
+     * 固定分桶的耗时直方图，单位微秒
+     */
+    public static class LatencyHistogram {
+        //每个桶的上限(us)
+        private static final int[] BUCKET_BOUNDS = {
+                25, 50, 75, 100, 150, 200, 300, 400, 500, 750,
+                1000, 1500, 2000, 3000, 4000, 6000, 8000, 12000, 16000, 24000,
+                32000, 50000, 100000, Integer.MAX_VALUE
+        };
+
+        private final int[] counts = new int[BUCKET_BOUNDS.length];
+        private int count = 0;
+        private long totalMicros = 0;
+        private long maxMicros = 0;
+
+        void record(long nanos) {
+            long micros = nanos / 1000;
+            int index = 0;
+            while (micros > BUCKET_BOUNDS[index]) index++;
+            counts[index]++;
+            count++;
+            totalMicros += micros;
+            if (micros > maxMicros) maxMicros = micros;
+        }
+
+        void reset() {
+            for (int i = 0; i < counts.length; i++) counts[i] = 0;
+            count = 0;
+            totalMicros = 0;
+            maxMicros = 0;
+        }
+
+        /**
+         * 获取百分位耗时
+         *
+         * @param percentile 0到100，例如50、95、99
+         * @return 所在桶的上限(us)，最后一个桶返回最大值，没有记录时返回0
+         */
+        public long getPercentile(float percentile) {
+            if (count == 0) return 0;
+            long target = (long) Math.ceil(count * percentile / 100F);
+            if (target < 1) target = 1;
+            long sum = 0;
+            for (int i = 0; i < counts.length; i++) {
+                sum += counts[i];
+                if (sum >= target) {
+                    return i == counts.length - 1 ? maxMicros : Math.min(BUCKET_BOUNDS[i], maxMicros);
+                }
+            }
+            return maxMicros;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        /**
+         * 获取平均耗时
+         *
+         * @return us
+         */
+        public long getAverage() {
+            return count == 0 ? 0 : totalMicros / count;
+        }
+
+        /**
+         * 获取最大耗时
+         *
+         * @return us
+         */
+        public long getMax() {
+            return maxMicros;
+        }
+    }
+}
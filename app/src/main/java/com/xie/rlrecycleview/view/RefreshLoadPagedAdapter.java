@@ -0,0 +1,303 @@
+package com.xie.rlrecycleview.view;
+
+import android.content.Context;
+import android.os.Bundle;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Created by Anthony on 2019/3/18.
+ * Describe:
+ * 分页窗口的RefreshLoadRecyclerAdapter
+ * 只在内存中保留当前位置附近的pageWindowSize页数据，超出窗口的页会被释放成占位，
+ * 占位只记录数量，getRealItemCount保持不变，滑回来时通过onReloadPage重新加载
+ * 占位item的getItem返回null，onBindViewHolderNew中需要自行处理占位的显示
+ */
+public abstract class RefreshLoadPagedAdapter<T> extends RefreshLoadRecyclerAdapter {
+    private static final int MIN_PAGE_WINDOW_SIZE = 3;
+    private static final String KEY_PAGE_SIZES = "RefreshLoadPagedAdapter.pageSizes";
+
+    private final List<Page<T>> pages = new ArrayList<>();
+    //每页的起始position，与pages一一对应
+    private int[] pageStarts = new int[8];
+    private int totalCount = 0;
+    //保留在内存中的页数
+    private int pageWindowSize = 5;
+    //最后一次访问的页
+    private int currentPage = -1;
+
+    /**
+     * 重新加载被释放的页
+     * 加载完成后调用setPageData，该方法在绑定过程中回调，不能在回调里同步调用setPageData
+     * Activity重建恢复时也通过这个方法加载保存位置附近的页
+     *
+     * @param pageIndex 页序号
+     */
+    protected abstract void onReloadPage(int pageIndex);
+
+    public RefreshLoadPagedAdapter(Context context) {
+        super(context);
+    }
+
+    /**
+     * 页被释放成占位时回调
+     *
+     * @param pageIndex 页序号
+     */
+    protected void onPageEvicted(int pageIndex) {
+    }
+
+    /**
+     * 设置保留在内存中的页数
+     *
+     * @param pageWindowSize 页数，最小为3
+     */
+    public void setPageWindowSize(int pageWindowSize) {
+        this.pageWindowSize = Math.max(pageWindowSize, MIN_PAGE_WINDOW_SIZE);
+        if (currentPage >= 0) updateWindow(currentPage);
+    }
+
+    public int getPageWindowSize() {
+        return pageWindowSize;
+    }
+
+    /**
+     * 在末尾添加一页
+     *
+     * @param items 页数据
+     */
+    public void addPage(@NonNull List<T> items) {
+        if (items.isEmpty()) return;
+        int start = totalCount;
+        Page<T> page = new Page<>();
+        page.items = new ArrayList<>(items);
+        page.size = items.size();
+        pages.add(page);
+        updatePageStarts();
+        getContentUpdateCallback().onInserted(start, page.size);
+    }
+
+    /**
+     * 设置某一页的数据，用于onReloadPage加载完成后回填
+     *
+     * @param pageIndex 页序号
+     * @param items     页数据
+     */
+    public void setPageData(int pageIndex, @NonNull List<T> items) {
+        if (pageIndex < 0 || pageIndex >= pages.size()) return;
+        Page<T> page = pages.get(pageIndex);
+        page.reloading = false;
+        //已经不在窗口内，不需要保留
+        if (currentPage >= 0 && !isInWindow(pageIndex, currentPage)) return;
+        int start = pageStarts[pageIndex];
+        int oldSize = page.size;
+        page.items = new ArrayList<>(items);
+        page.size = items.size();
+        updatePageStarts();
+        int changed = Math.min(oldSize, page.size);
+        if (changed > 0) getContentUpdateCallback().onChanged(start, changed, null);
+        if (page.size > oldSize) {
+            getContentUpdateCallback().onInserted(start + oldSize, page.size - oldSize);
+        } else if (page.size < oldSize) {
+            getContentUpdateCallback().onRemoved(start + page.size, oldSize - page.size);
+        }
+    }
+
+    /**
+     * 清空所有页，用于下拉刷新
+     */
+    public void clearPages() {
+        int count = totalCount;
+        pages.clear();
+        currentPage = -1;
+        updatePageStarts();
+        if (count > 0) getContentUpdateCallback().onRemoved(0, count);
+    }
+
+    /**
+     * 获取内容Item
+     *
+     * @param position 内容position，不包含头部
+     * @return item，处于被释放的页时返回null
+     */
+    @Nullable
+    public T getItem(int position) {
+        int pageIndex = getPageIndex(position);
+        if (pageIndex < 0) return null;
+        Page<T> page = pages.get(pageIndex);
+        if (page.items == null) return null;
+        return page.items.get(position - pageStarts[pageIndex]);
+    }
+
+    /**
+     * 判断是否是占位item
+     *
+     * @param position 内容position，不包含头部
+     * @return boolean
+     */
+    public boolean isPlaceholder(int position) {
+        int pageIndex = getPageIndex(position);
+        return pageIndex >= 0 && pages.get(pageIndex).items == null;
+    }
+
+    /**
+     * 获取position所在的页
+     *
+     * @param position 内容position，不包含头部
+     * @return 页序号，不存在时返回-1
+     */
+    public int getPageIndex(int position) {
+        if (position < 0 || position >= totalCount) return -1;
+        int index = Arrays.binarySearch(pageStarts, 0, pages.size(), position);
+        if (index >= 0) {
+            //跳过空页
+            while (index + 1 < pages.size() && pageStarts[index + 1] == position) index++;
+            return index;
+        }
+        return -index - 2;
+    }
+
+    public int getPageCount() {
+        return pages.size();
+    }
+
+    /**
+     * 获取当前保留在内存中的页数
+     *
+     * @return 页数
+     */
+    public int getLoadedPageCount() {
+        int count = 0;
+        for (int i = 0; i < pages.size(); i++) {
+            if (pages.get(i).items != null) count++;
+        }
+        return count;
+    }
+
+    @Override
+    protected int getRealItemCount() {
+        return totalCount;
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull BaseRecyclerViewHolder holder, int position) {
+        int realPosition = position - getHeadersCount();
+        if (realPosition >= 0 && realPosition < totalCount) {
+            int pageIndex = getPageIndex(realPosition);
+            if (pageIndex != currentPage) {
+                currentPage = pageIndex;
+                updateWindow(pageIndex);
+            }
+        }
+        super.onBindViewHolder(holder, position);
+    }
+
+    /**
+     * 保存每页的数量，子类可以在此基础上保存下一页的游标
+     */
+    @Override
+    protected void onSaveLoadState(@NonNull Bundle outState) {
+        int[] pageSizes = new int[pages.size()];
+        for (int i = 0; i < pageSizes.length; i++) {
+            pageSizes[i] = pages.get(i).size;
+        }
+        outState.putIntArray(KEY_PAGE_SIZES, pageSizes);
+    }
+
+    /**
+     * 按保存的数量恢复所有页的占位，只通过onReloadPage加载保存位置所在窗口内的页
+     * 数据没有丢失时(例如屏幕旋转后Adapter还在)不做处理
+     */
+    @Override
+    protected boolean onRestoreLoadState(@NonNull Bundle savedState, int anchorPosition) {
+        if (!pages.isEmpty()) return true;
+        int[] pageSizes = savedState.getIntArray(KEY_PAGE_SIZES);
+        if (pageSizes == null || pageSizes.length == 0) return false;
+        for (int size : pageSizes) {
+            Page<T> page = new Page<>();
+            page.size = size;
+            pages.add(page);
+        }
+        updatePageStarts();
+        if (totalCount > 0) getContentUpdateCallback().onInserted(0, totalCount);
+        int pageIndex = getPageIndex(anchorPosition);
+        currentPage = pageIndex >= 0 ? pageIndex : 0;
+        updateWindow(currentPage);
+        return true;
+    }
+
+    /**
+     * 内存不足时只保留可见的页，其他页释放成占位，滑过去时按窗口重新加载
+     */
+    @Override
+    protected int onTrimMemory(int level, int firstVisiblePosition, int lastVisiblePosition) {
+        int firstPage = getPageIndex(firstVisiblePosition);
+        int lastPage = getPageIndex(lastVisiblePosition);
+        if (firstPage < 0) firstPage = lastPage;
+        if (lastPage < 0) lastPage = firstPage;
+        //没有可见的内容时保留当前页
+        if (firstPage < 0) firstPage = lastPage = currentPage;
+        //还没有绑定过内容，不知道哪些页会被用到，不释放
+        if (firstPage < 0) return 0;
+        int releasedCount = 0;
+        for (int i = 0; i < pages.size(); i++) {
+            Page<T> page = pages.get(i);
+            if (page.items == null || (i >= firstPage && i <= lastPage)) continue;
+            releasedCount += page.size;
+            page.items = null;
+            page.reloading = false;
+            onPageEvicted(i);
+        }
+        return releasedCount;
+    }
+
+    /**
+     * 释放窗口外的页，重新加载窗口内被释放的页
+     *
+     * @param centerPage 当前页
+     */
+    private void updateWindow(int centerPage) {
+        for (int i = 0; i < pages.size(); i++) {
+            Page<T> page = pages.get(i);
+            if (isInWindow(i, centerPage)) {
+                if (page.items == null && !page.reloading) {
+                    page.reloading = true;
+                    onReloadPage(i);
+                }
+            } else if (page.items != null) {
+                page.items = null;
+                page.reloading = false;
+                onPageEvicted(i);
+            }
+        }
+    }
+
+    private boolean isInWindow(int pageIndex, int centerPage) {
+        int before = (pageWindowSize - 1) / 2;
+        int after = pageWindowSize - 1 - before;
+        return pageIndex >= centerPage - before && pageIndex <= centerPage + after;
+    }
+
+    private void updatePageStarts() {
+        if (pageStarts.length < pages.size()) {
+            pageStarts = new int[Math.max(pages.size(), pageStarts.length * 2)];
+        }
+        int start = 0;
+        for (int i = 0; i < pages.size(); i++) {
+            pageStarts[i] = start;
+            start += pages.get(i).size;
+        }
+        totalCount = start;
+    }
+
+    private static class Page<T> {
+        //被释放后为null，只保留数量
+        List<T> items;
+        int size;
+        boolean reloading;
+    }
+}
@@ -1,18 +1,25 @@
 package com.xie.rlrecycleview.view;
 
 import android.content.Context;
+import android.os.Bundle;
+import android.os.SystemClock;
 import android.support.annotation.LayoutRes;
 import android.support.annotation.NonNull;
 import android.support.v4.util.SparseArrayCompat;
+import android.support.v7.util.ListUpdateCallback;
 import android.support.v7.widget.GridLayoutManager;
+import android.support.v7.widget.LinearLayoutManager;
 import android.support.v7.widget.RecyclerView;
 import android.support.v7.widget.StaggeredGridLayoutManager;
+import android.util.SparseBooleanArray;
 import android.view.LayoutInflater;
 import android.view.MotionEvent;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.LinearLayout;
 
+import java.util.List;
+
 
 /**
  * Created by Anthony-XIE on 2017/7/6.
@@ -30,11 +37,28 @@ public abstract class RefreshLoadRecyclerAdapter extends RecyclerView.Adapter<Ba
     private static final int BASE_ITEM_TYPE_NULL_DATA_HEADER = 200000;//空布局头部
     private static final int BASE_ITEM_TYPE_FOOTER = 200001;
     private static final int SPECIAL_ITEM_TYPE_LOAD_FOOTER = 1000000;
+    //头部和尾部的id = RESERVED_ITEM_ID_BASE + viewType
+    private static final long RESERVED_ITEM_ID_BASE = Long.MIN_VALUE;
 
     protected Context context;
 
     //加载更多监听
     private OnLoadMoreListener onLoadMoreListener;
+    private OnLoadMoreRequestListener onLoadMoreRequestListener;
+
+    //请求的代，每次下拉刷新加一
+    private int loadGeneration = 0;
+    //正在进行的加载更多和下拉刷新请求
+    private LoadRequest loadMoreRequest;
+    private LoadRequest refreshRequest;
+
+    //向前加载(在顶部加载之前的数据)
+    private OnLoadPreviousListener onLoadPreviousListener;
+    private boolean isLoadPreviousEnable = false;
+    //剩下多少个item时开始向前加载
+    private int loadPreviousKey = 0;
+    private int loadPreviousState = BaseLoadMoreFooter.STATE_LOAD_FINISH;
+    private LoadRequest loadPreviousRequest;
 
     //加载更多布局
     private BaseLoadMoreFooter loadMoreFooterView;
@@ -45,11 +69,44 @@ public abstract class RefreshLoadRecyclerAdapter extends RecyclerView.Adapter<Ba
     private boolean isPullToRefresh = false;
     //剩下多少个item时才开始加载
     private int loadMoreKey = 0;
+    //自适应加载触发器，为null时只按loadMoreKey触发
+    private AdaptiveLoadMoreTrigger adaptiveLoadMoreTrigger;
 
     //容器
     private SparseArrayCompat<View> mHeaderViews = new SparseArrayCompat<>();
     private SparseArrayCompat<View> mFootViews = new SparseArrayCompat<>();
 
+    //内容区局部刷新回调(带头部偏移)
+    private ListUpdateCallback contentUpdateCallback;
+
+    //头部尾部的分区表缓存，头部或尾部变化时才重建
+    //内容数量每次直接读取getRealItemCount()，不依赖observer的通知顺序
+    private boolean isSectionDirty = true;
+    private int sectionHeaderCount;
+    private int sectionFooterCount;
+    private int[] sectionHeaderTypes = new int[4];
+    private int[] sectionFooterTypes = new int[4];
+
+    //预先创建ViewHolder
+    private HolderPreInflater holderPreInflater;
+    private RecyclerView attachedRecyclerView;
+    //创建过的viewType，内存不足时按类型清空RecycledViewPool
+    private final SparseBooleanArray createdViewTypes = new SparseBooleanArray();
+    //性能统计，为null时不统计
+    private RefreshLoadMetrics metrics;
+
+    //快速惯性滑动时使用onBindViewHolderLite
+    private boolean isLiteBindEnable = false;
+    //速度阈值(px/s)，惯性滑动速度超过时才使用简单绑定
+    private int liteBindVelocity = 0;
+    //当前是否处于简单绑定阶段
+    private boolean isLiteBinding = false;
+    //结束简单绑定时有holder因为数据变化还没有位置，等下次布局后再完整绑定
+    private boolean hasPendingLiteBind = false;
+
+    //预取即将出现的内容，为null时不回调
+    private PrefetchDispatcher prefetchDispatcher;
+
     //代替onCreateViewHolder
     protected abstract BaseRecyclerViewHolder onCreateViewHolderNew(ViewGroup parent, int viewType);
 
@@ -64,11 +121,38 @@ public abstract class RefreshLoadRecyclerAdapter extends RecyclerView.Adapter<Ba
 
     public RefreshLoadRecyclerAdapter(Context context) {
         this.context = context;
+        //数据变化时让分区表失效，直接修改头部尾部容器后notify也能生效
+        registerAdapterDataObserver(new RecyclerView.AdapterDataObserver() {
+            @Override
+            public void onChanged() {
+                invalidateSectionTable();
+                if (prefetchDispatcher != null) prefetchDispatcher.reset();
+            }
+
+            @Override
+            public void onItemRangeInserted(int positionStart, int itemCount) {
+                invalidateSectionTable();
+                if (prefetchDispatcher != null)
+                    prefetchDispatcher.onContentInserted(positionStart - getHeadersCount());
+            }
+
+            @Override
+            public void onItemRangeRemoved(int positionStart, int itemCount) {
+                invalidateSectionTable();
+                if (prefetchDispatcher != null) prefetchDispatcher.reset();
+            }
+
+            @Override
+            public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+                if (prefetchDispatcher != null) prefetchDispatcher.reset();
+            }
+        });
     }
 
     @NonNull
     @Override
     public BaseRecyclerViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        createdViewTypes.put(viewType, true);
         if (mHeaderViews.get(viewType) != null) {
             //头部
             return BaseRecyclerViewHolder.createViewHolder(mHeaderViews.get(viewType));
@@ -76,18 +160,33 @@ public abstract class RefreshLoadRecyclerAdapter extends RecyclerView.Adapter<Ba
             //尾部
             return BaseRecyclerViewHolder.createViewHolder(mFootViews.get(viewType));
         }
-        //内容部分
+        //内容部分，优先使用预先创建好的
+        if (holderPreInflater != null) {
+            BaseRecyclerViewHolder holder = holderPreInflater.obtain(viewType);
+            if (holder != null) return holder;
+        }
+        if (metrics != null) {
+            long startNanos = metrics.beginCreate(viewType);
+            try {
+                return onCreateViewHolderNew(parent, viewType);
+            } finally {
+                metrics.endCreate(viewType, startNanos);
+            }
+        }
         return onCreateViewHolderNew(parent, viewType);
     }
 
     @Override
     public int getItemViewType(int position) {
-        if (isHeaderViewPos(position)) {
-            return mHeaderViews.keyAt(position);
-        } else if (isFooterViewPos(position)) {
-            return mFootViews.keyAt(position - getHeadersCount() - getRealItemCount());
+        ensureSectionTable();
+        if (position < sectionHeaderCount) {
+            return sectionHeaderTypes[position];
+        }
+        int footerIndex = position - sectionHeaderCount - getRealItemCount();
+        if (footerIndex >= 0) {
+            return sectionFooterTypes[footerIndex];
         }
-        return getItemViewTypeNew(position - getHeadersCount());
+        return getItemViewTypeNew(position - sectionHeaderCount);
     }
 
     @Override
@@ -98,12 +197,104 @@ public abstract class RefreshLoadRecyclerAdapter extends RecyclerView.Adapter<Ba
         if (isFooterViewPos(position)) {
             return;
         }
-        onBindViewHolderNew(holder, position - getHeadersCount());
+        bindContentViewHolder(holder, position - sectionHeaderCount, null);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull BaseRecyclerViewHolder holder, int position, @NonNull List<Object> payloads) {
+        //没有payload时走完整绑定，子类只重写两个参数的onBindViewHolder也能生效
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+        if (isHeaderViewPos(position) || isFooterViewPos(position)) {
+            return;
+        }
+        bindContentViewHolder(holder, position - sectionHeaderCount, payloads);
+    }
+
+    private void bindContentViewHolder(BaseRecyclerViewHolder holder, int realPosition, List<Object> payloads) {
+        if (metrics != null) {
+            int viewType = holder.getItemViewType();
+            long startNanos = metrics.beginBind(viewType);
+            try {
+                dispatchBindViewHolder(holder, realPosition, payloads);
+            } finally {
+                metrics.endBind(viewType, startNanos);
+            }
+            return;
+        }
+        dispatchBindViewHolder(holder, realPosition, payloads);
+    }
+
+    private void dispatchBindViewHolder(BaseRecyclerViewHolder holder, int realPosition, List<Object> payloads) {
+        //只做了简单绑定的holder不能在此基础上局部刷新
+        if (payloads != null && !holder.isLiteBound) {
+            onBindViewHolderNew(holder, realPosition, payloads);
+        } else if (isLiteBinding) {
+            onBindViewHolderLite(holder, realPosition);
+            holder.isLiteBound = true;
+        } else {
+            onBindViewHolderNew(holder, realPosition);
+            holder.isLiteBound = false;
+        }
+    }
+
+    /**
+     * 快速惯性滑动时代替onBindViewHolderNew，只绑定文字等简单内容，不加载图片
+     * 需要通过setLiteBindEnable开启，停止滑动后仍然可见的item会再调用onBindViewHolderNew完整绑定
+     * 默认直接完整绑定
+     *
+     * @param holder   holder
+     * @param position 内容position，不包含头部
+     */
+    protected void onBindViewHolderLite(BaseRecyclerViewHolder holder, int position) {
+        onBindViewHolderNew(holder, position);
+    }
+
+    /**
+     * 局部刷新，代替带payloads的onBindViewHolder
+     * payloads来自notifyItemChanged(position, payload)或DiffUtil.ItemCallback.getChangePayload，不会为空
+     * 默认走完整绑定，需要局部刷新时重写
+     *
+     * @param holder   holder
+     * @param position 内容position，不包含头部
+     * @param payloads payloads
+     */
+    protected void onBindViewHolderNew(BaseRecyclerViewHolder holder, int position, @NonNull List<Object> payloads) {
+        onBindViewHolderNew(holder, position);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        ensureSectionTable();
+        //头部和尾部的viewType各不相同，映射到Long.MIN_VALUE附近的保留区间，不会与内容的id冲突
+        if (position < sectionHeaderCount) {
+            return RESERVED_ITEM_ID_BASE + sectionHeaderTypes[position];
+        }
+        int footerIndex = position - sectionHeaderCount - getRealItemCount();
+        if (footerIndex >= 0) {
+            return RESERVED_ITEM_ID_BASE + sectionFooterTypes[footerIndex];
+        }
+        return getItemIdNew(position - sectionHeaderCount);
+    }
+
+    /**
+     * 代替getItemId，setHasStableIds(true)时需要重写
+     * 返回的id不能落在[Long.MIN_VALUE, Long.MIN_VALUE + 1200001]区间内，该区间保留给头部和尾部
+     *
+     * @param position 内容position，不包含头部
+     * @return 稳定的id
+     */
+    protected long getItemIdNew(int position) {
+        return RecyclerView.NO_ID;
     }
 
     @Override
     public int getItemCount() {
-        return getHeadersCount() + getFootersCount() + getRealItemCount();
+        //布局和滑动时频繁调用，头部尾部数量使用分区表，内容数量直接读取，notify前后都是最新的
+        ensureSectionTable();
+        return sectionHeaderCount + getRealItemCount() + sectionFooterCount;
     }
 
     @Override
@@ -120,11 +311,24 @@ public abstract class RefreshLoadRecyclerAdapter extends RecyclerView.Adapter<Ba
                 StaggeredGridLayoutManager.LayoutParams p = (StaggeredGridLayoutManager.LayoutParams) lp;
                 p.setFullSpan(true);
             }
+            return;
         }
+        //从缓存中直接复用的holder不会重新绑定，简单绑定阶段结束后在这里补上完整绑定
+        if (holder.isLiteBound && !isLiteBinding && holder.getAdapterPosition() != RecyclerView.NO_POSITION) {
+            bindContentViewHolder(holder, holder.getAdapterPosition() - sectionHeaderCount, null);
+        }
+    }
+
+    @Override
+    public void onViewRecycled(@NonNull BaseRecyclerViewHolder holder) {
+        holder.isLiteBound = false;
     }
 
     @Override
     public void onAttachedToRecyclerView(@NonNull RecyclerView recyclerView) {
+        attachedRecyclerView = recyclerView;
+        //设置Adapter后马上开始预先创建
+        if (holderPreInflater != null) holderPreInflater.start(recyclerView);
         //处理gridLayout类型
 
         RecyclerView.LayoutManager layoutManager = recyclerView.getLayoutManager();
@@ -132,24 +336,144 @@ public abstract class RefreshLoadRecyclerAdapter extends RecyclerView.Adapter<Ba
             final GridLayoutManager gridLayoutManager = (GridLayoutManager) layoutManager;
             final GridLayoutManager.SpanSizeLookup spanSizeLookup = gridLayoutManager.getSpanSizeLookup();
 
-            gridLayoutManager.setSpanSizeLookup(new GridLayoutManager.SpanSizeLookup() {
+            GridLayoutManager.SpanSizeLookup lookup = new GridLayoutManager.SpanSizeLookup() {
                 @Override
                 public int getSpanSize(int position) {
-                    int viewType = getItemViewType(position);
-                    if (mHeaderViews.get(viewType) != null) {
-                        return gridLayoutManager.getSpanCount();
-                    } else if (mFootViews.get(viewType) != null) {
+                    //头部和尾部占满一行
+                    if (isHeaderViewPos(position) || isFooterViewPos(position)) {
                         return gridLayoutManager.getSpanCount();
                     }
                     if (spanSizeLookup != null)
                         return spanSizeLookup.getSpanSize(position);
                     return 1;
                 }
-            });
+            };
+            //GridLayoutManager在数据变化时会自动清除span index缓存
+            lookup.setSpanIndexCacheEnabled(true);
+            gridLayoutManager.setSpanSizeLookup(lookup);
             gridLayoutManager.setSpanCount(gridLayoutManager.getSpanCount());
         }
     }
 
+    @Override
+    public void onDetachedFromRecyclerView(@NonNull RecyclerView recyclerView) {
+        if (attachedRecyclerView == recyclerView) attachedRecyclerView = null;
+        if (holderPreInflater != null) holderPreInflater.stop();
+    }
+
+    /**
+     * 设置预先创建的ViewHolder数量
+     * 在主线程空闲时通过onCreateViewHolderNew创建，onCreateViewHolder时优先使用
+     *
+     * @param viewType getItemViewTypeNew返回的类型
+     * @param count    数量
+     */
+    public void setPreInflateCount(int viewType, int count) {
+        getHolderPreInflater().setCount(viewType, count);
+    }
+
+    /**
+     * 设置预先创建的ViewHolder数量，布局在后台线程inflate，再通过onCreateViewHolderFromView创建Holder
+     * onCreateViewHolderNew返回BaseRecyclerViewHolder子类时需要重写onCreateViewHolderFromView
+     *
+     * @param viewType getItemViewTypeNew返回的类型
+     * @param layoutId 布局
+     * @param count    数量
+     */
+    public void setPreInflateLayout(int viewType, @LayoutRes int layoutId, int count) {
+        getHolderPreInflater().setLayout(viewType, layoutId, count);
+    }
+
+    /**
+     * 用setPreInflateLayout在后台inflate好的View创建Holder，需要和onCreateViewHolderNew返回同样的类型
+     * 例如注解生成的Holder：return new XxxAdapter_ItemHolder_Binding(itemView);
+     *
+     * @param itemView 后台inflate的布局
+     * @param viewType viewType
+     * @return holder，默认是BaseRecyclerViewHolder
+     */
+    @NonNull
+    protected BaseRecyclerViewHolder onCreateViewHolderFromView(@NonNull View itemView, int viewType) {
+        return BaseRecyclerViewHolder.createViewHolder(itemView);
+    }
+
+    /**
+     * 设置是否开启性能统计
+     * 开启后按类型统计创建和绑定耗时，滑动时统计卡顿帧，并输出Trace区块
+     *
+     * @param enable 是否开启
+     */
+    public void setMetricsEnable(boolean enable) {
+        if (enable) {
+            if (metrics == null) metrics = new RefreshLoadMetrics();
+        } else {
+            if (metrics != null) metrics.stopFrameMonitor();
+            metrics = null;
+        }
+    }
+
+    /**
+     * 获取性能统计
+     *
+     * @return 未开启时返回null
+     */
+    public RefreshLoadMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * 内存不足时由RefreshLoadRecyclerView调用，释放不在屏幕上的内容数据，默认不释放
+     *
+     * @param level                ComponentCallbacks2.TRIM_MEMORY_*
+     * @param firstVisiblePosition 第一个可见的内容position，没有时为-1
+     * @param lastVisiblePosition  最后一个可见的内容position，没有时为-1
+     * @return 释放的item数量
+     */
+    protected int onTrimMemory(int level, int firstVisiblePosition, int lastVisiblePosition) {
+        return 0;
+    }
+
+    /**
+     * 获取创建过的viewType，包含头部和尾部
+     */
+    SparseBooleanArray getCreatedViewTypes() {
+        return createdViewTypes;
+    }
+
+    /**
+     * 释放预先创建好的Holder
+     *
+     * @return 释放的数量
+     */
+    int releasePreInflatedHolders() {
+        return holderPreInflater == null ? 0 : holderPreInflater.release();
+    }
+
+    /**
+     * 恢复因内存不足暂停的预先创建，列表重新显示时调用
+     */
+    void resumePreInflate() {
+        if (holderPreInflater != null) holderPreInflater.resume();
+    }
+
+    private HolderPreInflater getHolderPreInflater() {
+        if (holderPreInflater == null) {
+            holderPreInflater = new HolderPreInflater(this);
+            if (attachedRecyclerView != null) holderPreInflater.start(attachedRecyclerView);
+        }
+        return holderPreInflater;
+    }
+
+    /**
+     * 判断是否是头部尾部占用的类型，这些类型的View每个Adapter只有一个，不能在列表之间共用
+     *
+     * @param viewType viewType
+     * @return boolean
+     */
+    static boolean isReservedViewType(int viewType) {
+        return viewType >= SPECIAL_ITEM_TYPE_REFRESH_HEADER && viewType <= SPECIAL_ITEM_TYPE_LOAD_FOOTER + BASE_ITEM_TYPE_FOOTER;
+    }
+
     /**
      * 判断是不是Header
      *
@@ -157,7 +481,8 @@ public abstract class RefreshLoadRecyclerAdapter extends RecyclerView.Adapter<Ba
      * @return boolean
      */
     private boolean isHeaderViewPos(int position) {
-        return position < getHeadersCount();
+        ensureSectionTable();
+        return position < sectionHeaderCount;
     }
 
     /**
@@ -167,7 +492,72 @@ public abstract class RefreshLoadRecyclerAdapter extends RecyclerView.Adapter<Ba
      * @return boolean
      */
     private boolean isFooterViewPos(int position) {
-        return position >= getHeadersCount() + getRealItemCount();
+        ensureSectionTable();
+        return position >= sectionHeaderCount + getRealItemCount();
+    }
+
+    /**
+     * 让分区表失效，下次查询时重建
+     * 直接修改getHeaderViews()或getFootViews()返回的容器后需要调用
+     */
+    public void invalidateSectionTable() {
+        isSectionDirty = true;
+    }
+
+    /**
+     * 重建分区表：头部数量、尾部数量以及每个头部尾部的类型
+     */
+    private void ensureSectionTable() {
+        if (!isSectionDirty) return;
+        sectionHeaderCount = mHeaderViews.size();
+        sectionFooterCount = mFootViews.size();
+        if (sectionHeaderTypes.length < sectionHeaderCount) {
+            sectionHeaderTypes = new int[sectionHeaderCount * 2];
+        }
+        for (int i = 0; i < sectionHeaderCount; i++) {
+            sectionHeaderTypes[i] = mHeaderViews.keyAt(i);
+        }
+        if (sectionFooterTypes.length < sectionFooterCount) {
+            sectionFooterTypes = new int[sectionFooterCount * 2];
+        }
+        for (int i = 0; i < sectionFooterCount; i++) {
+            sectionFooterTypes[i] = mFootViews.keyAt(i);
+        }
+        isSectionDirty = false;
+    }
+
+    /**
+     * 获取内容区的局部刷新回调
+     * 回调中的position为内容position，内部会自动加上getHeadersCount()的偏移，头部和尾部不受影响
+     * 可直接传给DiffUtil.DiffResult.dispatchUpdatesTo使用
+     *
+     * @return ListUpdateCallback
+     */
+    protected ListUpdateCallback getContentUpdateCallback() {
+        if (contentUpdateCallback == null) {
+            contentUpdateCallback = new ListUpdateCallback() {
+                @Override
+                public void onInserted(int position, int count) {
+                    notifyItemRangeInserted(position + getHeadersCount(), count);
+                }
+
+                @Override
+                public void onRemoved(int position, int count) {
+                    notifyItemRangeRemoved(position + getHeadersCount(), count);
+                }
+
+                @Override
+                public void onMoved(int fromPosition, int toPosition) {
+                    notifyItemMoved(fromPosition + getHeadersCount(), toPosition + getHeadersCount());
+                }
+
+                @Override
+                public void onChanged(int position, int count, Object payload) {
+                    notifyItemRangeChanged(position + getHeadersCount(), count, payload);
+                }
+            };
+        }
+        return contentUpdateCallback;
     }
 
     /**
@@ -177,6 +567,7 @@ public abstract class RefreshLoadRecyclerAdapter extends RecyclerView.Adapter<Ba
      */
     public void addHeaderView(View view) {
         mHeaderViews.put(mHeaderViews.size() + BASE_ITEM_TYPE_HEADER, view);
+        invalidateSectionTable();
     }
 
     /**
@@ -191,6 +582,7 @@ public abstract class RefreshLoadRecyclerAdapter extends RecyclerView.Adapter<Ba
         linearLayout.setLayoutParams(lp);
         LayoutInflater.from(context).inflate(id, linearLayout);
         mHeaderViews.put(BASE_ITEM_TYPE_NULL_DATA_HEADER, linearLayout);
+        invalidateSectionTable();
         setNullDataUIHeaderVisibility(false);
         return linearLayout;
     }
@@ -202,6 +594,7 @@ public abstract class RefreshLoadRecyclerAdapter extends RecyclerView.Adapter<Ba
         int index = mHeaderViews.indexOfKey(BASE_ITEM_TYPE_NULL_DATA_HEADER);
         if (index != -1) {
             mHeaderViews.remove(BASE_ITEM_TYPE_NULL_DATA_HEADER);
+            invalidateSectionTable();
         }
     }
 
@@ -229,6 +622,7 @@ public abstract class RefreshLoadRecyclerAdapter extends RecyclerView.Adapter<Ba
         int index = mHeaderViews.indexOfValue(view);
         if (index != -1) {
             mHeaderViews.removeAt(index);
+            invalidateSectionTable();
         }
     }
 
@@ -240,6 +634,7 @@ public abstract class RefreshLoadRecyclerAdapter extends RecyclerView.Adapter<Ba
      */
     public void addFooterView(View view) {
         mFootViews.put(mFootViews.size() + BASE_ITEM_TYPE_FOOTER, view);
+        invalidateSectionTable();
     }
 
     /**
@@ -251,6 +646,7 @@ public abstract class RefreshLoadRecyclerAdapter extends RecyclerView.Adapter<Ba
         int index = mFootViews.indexOfValue(view);
         if (index != -1) {
             mFootViews.removeAt(index);
+            invalidateSectionTable();
         }
     }
 
@@ -261,6 +657,7 @@ public abstract class RefreshLoadRecyclerAdapter extends RecyclerView.Adapter<Ba
      */
     private void setLoadMoreFooter(View view) {
         mFootViews.put(SPECIAL_ITEM_TYPE_LOAD_FOOTER + BASE_ITEM_TYPE_FOOTER, view);
+        invalidateSectionTable();
     }
 
     /**
@@ -305,10 +702,17 @@ public abstract class RefreshLoadRecyclerAdapter extends RecyclerView.Adapter<Ba
      */
     public void startLoadMore() {
         //过滤同一页面重复请求
-        if (onLoadMoreListener == null || loadMoreFooterView == null || loadMoreFooterView.getState() != BaseLoadMoreFooter.STATE_LOAD_FINISH)
+        if ((onLoadMoreListener == null && onLoadMoreRequestListener == null) || loadMoreFooterView == null || loadMoreFooterView.getState() != BaseLoadMoreFooter.STATE_LOAD_FINISH)
             return;
         loadMoreFooterView.setLoadMoreState(BaseLoadMoreFooter.STATE_LOADING);
-        onLoadMoreListener.onLoadMore();
+        if (adaptiveLoadMoreTrigger != null)
+            adaptiveLoadMoreTrigger.onLoadStart(SystemClock.uptimeMillis());
+        loadMoreRequest = new LoadRequest(LoadRequest.TYPE_LOAD_MORE, loadGeneration);
+        if (onLoadMoreRequestListener != null) {
+            onLoadMoreRequestListener.onLoadMore(loadMoreRequest);
+        } else {
+            onLoadMoreListener.onLoadMore();
+        }
     }
 
     public void setOnLoadMoreListener(OnLoadMoreListener onLoadMoreListener) {
@@ -317,6 +721,53 @@ public abstract class RefreshLoadRecyclerAdapter extends RecyclerView.Adapter<Ba
 
     }
 
+    /**
+     * 设置带请求的加载更多监听，设置后代替OnLoadMoreListener
+     * 完成时调用finishLoadMore(LoadRequest)或showNoMoreHint(LoadRequest)
+     *
+     * @param onLoadMoreRequestListener onLoadMoreRequestListener
+     */
+    public void setOnLoadMoreRequestListener(OnLoadMoreRequestListener onLoadMoreRequestListener) {
+        this.onLoadMoreRequestListener = onLoadMoreRequestListener;
+        if (onLoadMoreRequestListener != null) initLoadMoreView();
+    }
+
+    /**
+     * 判断请求是否还有效，被取消或者已经开始了新的下拉刷新时返回false
+     * 后台加载完成后应先判断，无效时丢弃结果
+     *
+     * @param request request
+     * @return boolean
+     */
+    public boolean isRequestActive(LoadRequest request) {
+        return request != null && !request.isCancelled() && request.getGeneration() == loadGeneration
+                && (request == loadMoreRequest || request == refreshRequest || request == loadPreviousRequest);
+    }
+
+    /**
+     * 加载完成
+     *
+     * @param request 对应的请求
+     * @return 请求已失效时返回false，不改变状态
+     */
+    public boolean finishLoadMore(LoadRequest request) {
+        if (!isRequestActive(request)) return false;
+        finishLoadMore();
+        return true;
+    }
+
+    /**
+     * 停止加载,显示“没有更多了”
+     *
+     * @param request 对应的请求
+     * @return 请求已失效时返回false，不改变状态
+     */
+    public boolean showNoMoreHint(LoadRequest request) {
+        if (!isRequestActive(request)) return false;
+        showNoMoreHint();
+        return true;
+    }
+
     private void initLoadMoreView() {
         if (loadMoreFooterView == null) {
             loadMoreFooterView = new LoadMoreFooter(context);
@@ -330,6 +781,9 @@ public abstract class RefreshLoadRecyclerAdapter extends RecyclerView.Adapter<Ba
      */
     public void finishLoadMore() {
         if (loadMoreFooterView == null) return;
+        loadMoreRequest = null;
+        if (adaptiveLoadMoreTrigger != null)
+            adaptiveLoadMoreTrigger.onLoadFinish(SystemClock.uptimeMillis());
         loadMoreFooterView.setLoadMoreState(BaseLoadMoreFooter.STATE_LOAD_FINISH);
     }
 
@@ -338,6 +792,9 @@ public abstract class RefreshLoadRecyclerAdapter extends RecyclerView.Adapter<Ba
      */
     public void showNoMoreHint() {
         if (loadMoreFooterView == null) return;
+        loadMoreRequest = null;
+        if (adaptiveLoadMoreTrigger != null)
+            adaptiveLoadMoreTrigger.onLoadFinish(SystemClock.uptimeMillis());
         loadMoreFooterView.setLoadMoreState(BaseLoadMoreFooter.STATE_NO_MORE);
     }
 
@@ -346,6 +803,11 @@ public abstract class RefreshLoadRecyclerAdapter extends RecyclerView.Adapter<Ba
      */
     public void resetLoadMoreState() {
         if (loadMoreFooterView == null) return;
+        if (loadMoreRequest != null) {
+            loadMoreRequest.cancel();
+            loadMoreRequest = null;
+        }
+        if (adaptiveLoadMoreTrigger != null) adaptiveLoadMoreTrigger.onLoadCancel();
         loadMoreFooterView.setLoadMoreState(BaseLoadMoreFooter.STATE_LOAD_FINISH);
     }
 
@@ -361,10 +823,236 @@ public abstract class RefreshLoadRecyclerAdapter extends RecyclerView.Adapter<Ba
         return loadMoreFooterView.getState() == BaseLoadMoreFooter.STATE_NO_MORE;
     }
 
+    /**
+     * 获取加载更多的状态，没有设置加载更多时返回STATE_LOAD_FINISH
+     */
+    int getLoadMoreState() {
+        return loadMoreFooterView == null ? BaseLoadMoreFooter.STATE_LOAD_FINISH : loadMoreFooterView.getState();
+    }
+
+    /**
+     * 恢复保存的加载更多状态
+     * 保存时正在加载、恢复时已经没有请求的，由RefreshLoadRecyclerView在布局后重新检测加载
+     *
+     * @param state 保存时的状态
+     * @return 是否需要重新检测加载更多
+     */
+    boolean restoreLoadMoreState(int state) {
+        if (loadMoreFooterView == null) return false;
+        switch (state) {
+            case BaseLoadMoreFooter.STATE_NO_MORE:
+                showNoMoreHint();
+                return false;
+            case BaseLoadMoreFooter.STATE_LOADING:
+                //Adapter还在(例如屏幕旋转)时请求仍然有效，不重复加载
+                return loadMoreFooterView.getState() == BaseLoadMoreFooter.STATE_LOAD_FINISH;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * 保存加载进度，例如已加载的页数或下一页的游标，Activity重建后通过onRestoreLoadState恢复
+     * 只保存重新加载需要的少量数据，不要保存item本身
+     *
+     * @param outState 保存到RefreshLoadRecyclerView的状态中
+     */
+    protected void onSaveLoadState(@NonNull Bundle outState) {
+    }
+
+    /**
+     * Activity重建后恢复加载进度，只重新加载anchorPosition附近需要的数据
+     * 返回true时列表恢复“没有更多了”的状态并滚动到保存的位置，不需要再刷新或加载第一页
+     *
+     * @param savedState     onSaveLoadState保存的数据
+     * @param anchorPosition 保存时第一个可见的内容position，没有时为-1
+     * @return 是否已经恢复，默认false
+     */
+    protected boolean onRestoreLoadState(@NonNull Bundle savedState, int anchorPosition) {
+        return false;
+    }
+
     public interface OnLoadMoreListener {
         void onLoadMore();
     }
 
+    public interface OnLoadMoreRequestListener {
+        void onLoadMore(LoadRequest request);
+    }
+
+    public interface OnPrefetchListener {
+        /**
+         * 当前滑动方向上即将出现的内容，可以提前解码图片、排版文字或读取数据库
+         * 同一方向上连续滑动时只回调新增的部分，速度越快范围越大
+         *
+         * @param start 内容position，不包含头部
+         * @param end   不包含
+         */
+        void onPrefetch(int start, int end);
+
+        /**
+         * 滑动方向反转，之前回调过但还没有出现的部分不再需要
+         *
+         * @param start 内容position，不包含头部
+         * @param end   不包含
+         */
+        void onPrefetchCancel(int start, int end);
+    }
+
+    /**
+     * 设置预取监听
+     *
+     * @param onPrefetchListener 为null时关闭预取
+     */
+    public void setOnPrefetchListener(OnPrefetchListener onPrefetchListener) {
+        if (onPrefetchListener == null) {
+            if (prefetchDispatcher != null) prefetchDispatcher.setOnPrefetchListener(null);
+            return;
+        }
+        if (prefetchDispatcher == null) prefetchDispatcher = new PrefetchDispatcher();
+        prefetchDispatcher.setOnPrefetchListener(onPrefetchListener);
+    }
+
+    /**
+     * 设置每次预取的数量，实际数量根据滑动速度在两者之间变化
+     *
+     * @param minPrefetchCount 慢速滑动时预取的item数量，默认4
+     * @param maxPrefetchCount 最多预取的item数量，默认30
+     */
+    public void setPrefetchCount(int minPrefetchCount, int maxPrefetchCount) {
+        if (prefetchDispatcher == null) prefetchDispatcher = new PrefetchDispatcher();
+        prefetchDispatcher.setPrefetchCount(minPrefetchCount, maxPrefetchCount);
+    }
+
+    /**
+     * @return 没有设置预取监听时返回null
+     */
+    PrefetchDispatcher getPrefetchDispatcher() {
+        return prefetchDispatcher == null || prefetchDispatcher.getOnPrefetchListener() == null ? null : prefetchDispatcher;
+    }
+
+    public interface OnLoadPreviousListener {
+        /**
+         * 加载当前第一条数据之前的一页
+         * 数据插入后调用notifyContentInsertedAbove，然后调用finishLoadPrevious或showNoPreviousHint
+         *
+         * @param request request
+         */
+        void onLoadPrevious(LoadRequest request);
+    }
+
+    /**
+     * 设置向前加载
+     * 开启后向上滑动到剩下loadPreviousKey个内容item时回调OnLoadPreviousListener
+     *
+     * @param enable          是否开启
+     * @param loadPreviousKey 剩下多少个item没划的时候开始加载
+     */
+    public void setLoadPreviousEnable(boolean enable, int loadPreviousKey) {
+        isLoadPreviousEnable = enable;
+        this.loadPreviousKey = loadPreviousKey;
+    }
+
+    public boolean isLoadPreviousEnable() {
+        return isLoadPreviousEnable && onLoadPreviousListener != null;
+    }
+
+    public int getLoadPreviousKey() {
+        return loadPreviousKey;
+    }
+
+    public void setOnLoadPreviousListener(OnLoadPreviousListener onLoadPreviousListener) {
+        this.onLoadPreviousListener = onLoadPreviousListener;
+    }
+
+    /**
+     * 开始向前加载
+     */
+    public void startLoadPrevious() {
+        //过滤重复请求
+        if (onLoadPreviousListener == null || loadPreviousState != BaseLoadMoreFooter.STATE_LOAD_FINISH)
+            return;
+        loadPreviousState = BaseLoadMoreFooter.STATE_LOADING;
+        loadPreviousRequest = new LoadRequest(LoadRequest.TYPE_LOAD_PREVIOUS, loadGeneration);
+        onLoadPreviousListener.onLoadPrevious(loadPreviousRequest);
+    }
+
+    /**
+     * 向前加载完成
+     *
+     * @param request 对应的请求
+     * @return 请求已失效时返回false，不改变状态
+     */
+    public boolean finishLoadPrevious(LoadRequest request) {
+        if (!isRequestActive(request)) return false;
+        loadPreviousRequest = null;
+        loadPreviousState = BaseLoadMoreFooter.STATE_LOAD_FINISH;
+        return true;
+    }
+
+    /**
+     * 前面已经没有数据，不再向前加载
+     *
+     * @param request 对应的请求
+     * @return 请求已失效时返回false，不改变状态
+     */
+    public boolean showNoPreviousHint(LoadRequest request) {
+        if (!isRequestActive(request)) return false;
+        loadPreviousRequest = null;
+        loadPreviousState = BaseLoadMoreFooter.STATE_NO_MORE;
+        return true;
+    }
+
+    /**
+     * 重设向前加载状态，取消正在进行的请求
+     */
+    public void resetLoadPreviousState() {
+        if (loadPreviousRequest != null) {
+            loadPreviousRequest.cancel();
+            loadPreviousRequest = null;
+        }
+        loadPreviousState = BaseLoadMoreFooter.STATE_LOAD_FINISH;
+    }
+
+    boolean isPreviousLoading() {
+        return loadPreviousState != BaseLoadMoreFooter.STATE_LOAD_FINISH;
+    }
+
+    /**
+     * 通知在内容最前面插入了数据，并保持当前第一个可见内容item的位置不动
+     * 数据需要先插入到Adapter的数据中再调用
+     *
+     * @param count 插入的数量
+     */
+    public void notifyContentInsertedAbove(int count) {
+        if (count <= 0) return;
+        RecyclerView recyclerView = attachedRecyclerView;
+        int anchorPosition = RecyclerView.NO_POSITION;
+        int anchorOffset = 0;
+        if (recyclerView != null && recyclerView.getLayoutManager() != null) {
+            int headersCount = getHeadersCount();
+            //找到第一个可见的内容item作为锚点
+            for (int i = 0; i < recyclerView.getChildCount(); i++) {
+                View child = recyclerView.getChildAt(i);
+                int position = recyclerView.getChildAdapterPosition(child);
+                if (position < headersCount || position >= headersCount + getRealItemCount() - count) continue;
+                if (anchorPosition == RecyclerView.NO_POSITION || position < anchorPosition) {
+                    anchorPosition = position;
+                    anchorOffset = RefreshLoadRecyclerView.getAnchorOffset(recyclerView, child);
+                }
+            }
+        }
+        getContentUpdateCallback().onInserted(0, count);
+        if (anchorPosition == RecyclerView.NO_POSITION) return;
+        //锚点下移count个位置，偏移不变
+        RecyclerView.LayoutManager layoutManager = recyclerView.getLayoutManager();
+        if (layoutManager instanceof LinearLayoutManager) {
+            ((LinearLayoutManager) layoutManager).scrollToPositionWithOffset(anchorPosition + count, anchorOffset);
+        } else if (layoutManager instanceof StaggeredGridLayoutManager) {
+            ((StaggeredGridLayoutManager) layoutManager).scrollToPositionWithOffset(anchorPosition + count, anchorOffset);
+        }
+    }
+
     /**
      * 自动加载开关
      *
@@ -385,6 +1073,71 @@ public abstract class RefreshLoadRecyclerAdapter extends RecyclerView.Adapter<Ba
         this.loadMoreKey = loadMoreKey;
     }
 
+    /**
+     * 设置快速惯性滑动时的简单绑定
+     * 开启后惯性滑动速度超过liteBindVelocity时使用onBindViewHolderLite，停止滑动后完整绑定可见的item
+     *
+     * @param enable          是否开启
+     * @param liteBindVelocity 速度阈值，单位px/s
+     */
+    public void setLiteBindEnable(boolean enable, int liteBindVelocity) {
+        isLiteBindEnable = enable;
+        this.liteBindVelocity = liteBindVelocity;
+        if (!enable) stopLiteBinding();
+    }
+
+    public boolean isLiteBindEnable() {
+        return isLiteBindEnable;
+    }
+
+    int getLiteBindVelocity() {
+        return liteBindVelocity;
+    }
+
+    /**
+     * 开始简单绑定，由RefreshLoadRecyclerView在惯性滑动速度超过阈值时调用
+     */
+    void startLiteBinding() {
+        isLiteBinding = isLiteBindEnable;
+    }
+
+    /**
+     * 速度降到阈值以下，之后的绑定恢复为完整绑定，已经简单绑定的item等停止滑动后再处理
+     */
+    void pauseLiteBinding() {
+        isLiteBinding = false;
+    }
+
+    /**
+     * 结束简单绑定，完整绑定当前可见的item
+     * 已经被回收的holder不在RecyclerView中，不会被绑定
+     */
+    void stopLiteBinding() {
+        isLiteBinding = false;
+        hasPendingLiteBind = false;
+        if (attachedRecyclerView == null) return;
+        for (int i = 0; i < attachedRecyclerView.getChildCount(); i++) {
+            RecyclerView.ViewHolder viewHolder = attachedRecyclerView.getChildViewHolder(attachedRecyclerView.getChildAt(i));
+            if (!(viewHolder instanceof BaseRecyclerViewHolder) || !((BaseRecyclerViewHolder) viewHolder).isLiteBound)
+                continue;
+            int position = viewHolder.getAdapterPosition();
+            //有未完成的数据变化时等重新布局再绑定
+            if (position == RecyclerView.NO_POSITION) {
+                hasPendingLiteBind = true;
+                continue;
+            }
+            if (isHeaderViewPos(position) || isFooterViewPos(position)) continue;
+            bindContentViewHolder((BaseRecyclerViewHolder) viewHolder, position - sectionHeaderCount, null);
+        }
+    }
+
+    /**
+     * 布局完成，补上之前因为数据变化没能完成的完整绑定
+     */
+    void onLayoutCompleted() {
+        if (hasPendingLiteBind && !isLiteBinding) stopLiteBinding();
+    }
+
     /**
      * 获取自动加载关键值
      *
@@ -394,6 +1147,31 @@ public abstract class RefreshLoadRecyclerAdapter extends RecyclerView.Adapter<Ba
         return loadMoreKey;
     }
 
+    /**
+     * 设置自适应自动加载
+     * 开启后代替loadMoreKey，根据滑动速度和平均加载耗时决定何时加载，
+     * 快速滑动时提前加载，慢速滑动时不加载滑不到的数据，最后一个内容item可见时总是加载
+     *
+     * @param adaptive 是否开启
+     */
+    public void setAdaptiveLoadMoreEnable(boolean adaptive) {
+        if (adaptive) {
+            if (adaptiveLoadMoreTrigger == null)
+                adaptiveLoadMoreTrigger = new AdaptiveLoadMoreTrigger();
+        } else {
+            adaptiveLoadMoreTrigger = null;
+        }
+    }
+
+    /**
+     * 获取自适应加载触发器，可用于读取学习到的参数
+     *
+     * @return 未开启时返回null
+     */
+    public AdaptiveLoadMoreTrigger getAdaptiveLoadMoreTrigger() {
+        return adaptiveLoadMoreTrigger;
+    }
+
     //--------------------------------下拉刷新部分--------------------------------//
     private BaseRefreshHeader refreshHeader;
     private float startY = -1;
@@ -401,11 +1179,19 @@ public abstract class RefreshLoadRecyclerAdapter extends RecyclerView.Adapter<Ba
     private float allStartX = -1;
     private boolean isTouch = false;//防止惯性滑动触发刷新用
     private boolean isDispatch = false;//是否处理掉触摸事件
+    private boolean isPullDrawOnly = false;//拖动时只改变绘制位置
+
+    private OnRefreshListener onRefreshListener;
+    private OnRefreshRequestListener onRefreshRequestListener;
 
     public interface OnRefreshListener {
         void onRefresh();
     }
 
+    public interface OnRefreshRequestListener {
+        void onRefresh(LoadRequest request);
+    }
+
     boolean dispatchTouchEvent(MotionEvent e, RefreshLoadRecyclerView recyclerView) {
         switch (e.getAction()) {
             case MotionEvent.ACTION_DOWN:
@@ -430,8 +1216,8 @@ public abstract class RefreshLoadRecyclerAdapter extends RecyclerView.Adapter<Ba
                 if (isTouch && Math.abs(offsetY) > Math.abs(offsetX) && ((deltaY > 0 && recyclerView.checkOnTop()) || refreshHeader.getVisibleHeight() > RefreshHeader.MIN_HEIGHT)) {
                     //防止异常回弹(需要根据屏幕密度判断)
 //                if(Math.abs(deltaY)<100){
-                    //为了防止滑动幅度过大，将实际手指滑动的距离除以2.5
-                    refreshHeader.onMove(deltaY / 2.5F);
+                    //按阻力曲线换算手指滑动的距离
+                    refreshHeader.onPull(deltaY);
 //                }
                     isDispatch = true;
                 }
@@ -456,16 +1242,94 @@ public abstract class RefreshLoadRecyclerAdapter extends RecyclerView.Adapter<Ba
 
     public void setOnRefreshListener(OnRefreshListener onRefreshListener) {
         //下拉刷新监听
-        if (onRefreshListener != null && refreshHeader == null) {
-            refreshHeader = new RefreshHeader(context);
-            setRefreshHeader(refreshHeader);
-            refreshHeader.setOnRefreshListener(onRefreshListener);
-            refreshHeader.setVisibleHeight(1);
+        this.onRefreshListener = onRefreshListener;
+        if (onRefreshListener != null) initRefreshHeader();
+    }
+
+    /**
+     * 设置带请求的下拉刷新监听，设置后代替OnRefreshListener
+     * 完成时调用finishRefresh(LoadRequest)
+     *
+     * @param onRefreshRequestListener onRefreshRequestListener
+     */
+    public void setOnRefreshRequestListener(OnRefreshRequestListener onRefreshRequestListener) {
+        this.onRefreshRequestListener = onRefreshRequestListener;
+        if (onRefreshRequestListener != null) initRefreshHeader();
+    }
+
+    private void initRefreshHeader() {
+        if (refreshHeader != null) return;
+        refreshHeader = new RefreshHeader(context);
+        setRefreshHeader(refreshHeader);
+        refreshHeader.setOnRefreshListener(new OnRefreshListener() {
+            @Override
+            public void onRefresh() {
+                startRefreshRequest();
+            }
+        });
+        refreshHeader.setDrawOnlyPull(isPullDrawOnly);
+        refreshHeader.setVisibleHeight(1);
+    }
+
+    /**
+     * 开始新一代请求：取消还没完成的加载更多和上一次刷新，再回调刷新监听
+     */
+    private void startRefreshRequest() {
+        loadGeneration++;
+        if (loadMoreRequest != null) {
+            //正在加载的旧数据不再需要
+            resetLoadMoreState();
+        }
+        if (loadPreviousRequest != null) resetLoadPreviousState();
+        if (refreshRequest != null) refreshRequest.cancel();
+        refreshRequest = new LoadRequest(LoadRequest.TYPE_REFRESH, loadGeneration);
+        if (onRefreshRequestListener != null) {
+            onRefreshRequestListener.onRefresh(refreshRequest);
+        } else if (onRefreshListener != null) {
+            onRefreshListener.onRefresh();
         }
     }
 
+    /**
+     * 是否有还没完成的刷新
+     */
+    boolean isRefreshRequesting() {
+        return refreshRequest != null;
+    }
+
+    /**
+     * 不显示下拉动画直接开始刷新，回调和下拉刷新相同的监听
+     */
+    public void refresh() {
+        startRefreshRequest();
+    }
+
+    /**
+     * 刷新完成
+     *
+     * @param request 对应的请求
+     * @return 请求已失效时返回false，不改变状态
+     */
+    public boolean finishRefresh(LoadRequest request) {
+        if (!isRequestActive(request)) return false;
+        finishRefresh();
+        return true;
+    }
+
+    /**
+     * 获取刷新头部
+     *
+     * @return 未设置下拉刷新监听时返回null
+     */
+    BaseRefreshHeader getRefreshHeader() {
+        return refreshHeader;
+    }
+
     public void finishRefresh() {
-        refreshHeader.onRefreshFinish();
+        refreshRequest = null;
+        //通过refresh()开始的刷新没有下拉动画，不需要收起
+        if (refreshHeader.getState() == BaseRefreshHeader.STATE_REFRESHING)
+            refreshHeader.onRefreshFinish();
     }
 
     /**
@@ -477,6 +1341,17 @@ public abstract class RefreshLoadRecyclerAdapter extends RecyclerView.Adapter<Ba
         isPullToRefresh = pullToRefresh;
     }
 
+    /**
+     * 设置下拉时是否只改变绘制位置，不重新布局
+     *
+     * @param pullDrawOnly 是否开启
+     * @see BaseRefreshHeader#setDrawOnlyPull(boolean)
+     */
+    public void setPullDrawOnly(boolean pullDrawOnly) {
+        isPullDrawOnly = pullDrawOnly;
+        if (refreshHeader != null) refreshHeader.setDrawOnlyPull(pullDrawOnly);
+    }
+
     /**
      * 获取下拉刷新开关状态
      *
@@ -493,5 +1368,6 @@ public abstract class RefreshLoadRecyclerAdapter extends RecyclerView.Adapter<Ba
      */
     private void setRefreshHeader(BaseRefreshHeader refreshHeader) {
         mHeaderViews.put(SPECIAL_ITEM_TYPE_REFRESH_HEADER, refreshHeader);
+        invalidateSectionTable();
     }
 }
@@ -1,26 +1,136 @@
 package com.xie.rlrecycleview.view;
 
+import android.graphics.Canvas;
+import android.graphics.Paint;
 import android.graphics.Rect;
+import android.support.annotation.ColorInt;
 import android.support.annotation.NonNull;
+import android.support.v7.widget.GridLayoutManager;
 import android.support.v7.widget.RecyclerView;
+import android.support.v7.widget.StaggeredGridLayoutManager;
 import android.view.View;
 
 /**
  * Created by Anthony on 2018/11/29.
  * Describe:
+ * 内容item之间的间距，头部和尾部不受影响
+ * 支持LinearLayoutManager、GridLayoutManager和StaggeredGridLayoutManager，
+ * 多列时列与列之间也有相同的间距，每一列宽度相等
+ * 设置setDividerColor后在onDraw中一次性绘制所有间距
  */
 public class RefreshLoadRecyclerItemDecoration extends RecyclerView.ItemDecoration {
     private int space;
     private RefreshLoadRecyclerAdapter refreshLoadRecyclerAdapter;
 
+    //分割线，为null时不绘制
+    private Paint dividerPaint;
+    private final Rect bounds = new Rect();
+
     public RefreshLoadRecyclerItemDecoration(@NonNull RefreshLoadRecyclerAdapter refreshLoadRecyclerAdapter, int space) {
         this.space = space;
         this.refreshLoadRecyclerAdapter = refreshLoadRecyclerAdapter;
     }
 
+    /**
+     * 设置分割线颜色，间距区域会被绘制成该颜色
+     *
+     * @param color 颜色
+     */
+    public void setDividerColor(@ColorInt int color) {
+        if (dividerPaint == null) {
+            dividerPaint = new Paint();
+            dividerPaint.setStyle(Paint.Style.FILL);
+        }
+        dividerPaint.setColor(color);
+    }
+
     @Override
-    public void getItemOffsets(Rect outRect, View view, RecyclerView parent, RecyclerView.State state) {
-        if (refreshLoadRecyclerAdapter != null && parent.getChildAdapterPosition(view) > refreshLoadRecyclerAdapter.getHeadersCount())
-            outRect.top = space;
+    public void getItemOffsets(@NonNull Rect outRect, @NonNull View view, @NonNull RecyclerView parent, @NonNull RecyclerView.State state) {
+        outRect.set(0, 0, 0, 0);
+        //布局时layoutPosition就是这次布局的位置，不需要getChildAdapterPosition查询
+        int contentPosition = ((RecyclerView.LayoutParams) view.getLayoutParams()).getViewLayoutPosition()
+                - refreshLoadRecyclerAdapter.getHeadersCount();
+        if (contentPosition < 0 || contentPosition >= refreshLoadRecyclerAdapter.getRealItemCount()) return;
+
+        RecyclerView.LayoutManager layoutManager = parent.getLayoutManager();
+        boolean isVertical = layoutManager == null || layoutManager.canScrollVertically();
+        int spanCount = 1;
+        int spanIndex = 0;
+        int spanSize = 1;
+        boolean isFirstRow;
+        if (layoutManager instanceof GridLayoutManager) {
+            GridLayoutManager gridLayoutManager = (GridLayoutManager) layoutManager;
+            //spanIndex和spanSize在布局时已经保存在LayoutParams中
+            GridLayoutManager.LayoutParams lp = (GridLayoutManager.LayoutParams) view.getLayoutParams();
+            spanCount = gridLayoutManager.getSpanCount();
+            spanIndex = lp.getSpanIndex();
+            spanSize = lp.getSpanSize();
+            //第一行最多spanCount个item，后面的item不需要计算
+            isFirstRow = contentPosition < spanCount && contentPosition < getFirstRowCount(gridLayoutManager);
+        } else if (layoutManager instanceof StaggeredGridLayoutManager) {
+            StaggeredGridLayoutManager.LayoutParams lp = (StaggeredGridLayoutManager.LayoutParams) view.getLayoutParams();
+            spanCount = ((StaggeredGridLayoutManager) layoutManager).getSpanCount();
+            if (lp.isFullSpan()) {
+                spanSize = spanCount;
+            } else {
+                spanIndex = lp.getSpanIndex();
+            }
+            isFirstRow = contentPosition < spanCount;
+        } else {
+            isFirstRow = contentPosition == 0;
+        }
+        //每一列分摊相同的间距，保证列宽相等
+        int start = spanIndex * space / spanCount;
+        int end = space - (spanIndex + spanSize) * space / spanCount;
+        int before = isFirstRow ? 0 : space;
+        if (isVertical) {
+            outRect.set(start, before, end, 0);
+        } else {
+            outRect.set(before, start, 0, end);
+        }
+    }
+
+    @Override
+    public void onDraw(@NonNull Canvas c, @NonNull RecyclerView parent, @NonNull RecyclerView.State state) {
+        if (dividerPaint == null || parent.getLayoutManager() == null) return;
+        int headersCount = refreshLoadRecyclerAdapter.getHeadersCount();
+        int realCount = refreshLoadRecyclerAdapter.getRealItemCount();
+        for (int i = 0, count = parent.getChildCount(); i < count; i++) {
+            View child = parent.getChildAt(i);
+            int contentPosition = ((RecyclerView.LayoutParams) child.getLayoutParams()).getViewLayoutPosition() - headersCount;
+            if (contentPosition < 0 || contentPosition >= realCount) continue;
+            parent.getLayoutManager().getDecoratedBoundsWithMargins(child, bounds);
+            int dx = Math.round(child.getTranslationX());
+            int dy = Math.round(child.getTranslationY());
+            bounds.offset(dx, dy);
+            int left = child.getLeft() + dx;
+            int top = child.getTop() + dy;
+            int right = child.getRight() + dx;
+            int bottom = child.getBottom() + dy;
+            //四周的间距区域，没有间距时不绘制
+            if (top > bounds.top) c.drawRect(bounds.left, bounds.top, bounds.right, top, dividerPaint);
+            if (left > bounds.left) c.drawRect(bounds.left, top, left, bottom, dividerPaint);
+            if (bounds.right > right) c.drawRect(right, top, bounds.right, bottom, dividerPaint);
+            if (bounds.bottom > bottom) c.drawRect(bounds.left, bottom, bounds.right, bounds.bottom, dividerPaint);
+        }
+    }
+
+    /**
+     * 计算GridLayoutManager第一行放得下多少个内容item
+     * 最多查询spanCount次，每次直接计算，不需要监听数据变化来让结果失效
+     */
+    private int getFirstRowCount(GridLayoutManager gridLayoutManager) {
+        int spanCount = gridLayoutManager.getSpanCount();
+        GridLayoutManager.SpanSizeLookup spanSizeLookup = gridLayoutManager.getSpanSizeLookup();
+        int headersCount = refreshLoadRecyclerAdapter.getHeadersCount();
+        int realCount = refreshLoadRecyclerAdapter.getRealItemCount();
+        int usedSpan = 0;
+        int count = 0;
+        while (count < realCount) {
+            usedSpan += spanSizeLookup.getSpanSize(headersCount + count);
+            if (usedSpan > spanCount) break;
+            count++;
+        }
+        return count;
     }
 }
@@ -1,14 +1,24 @@
 package com.xie.rlrecycleview.view;
 
+import android.content.ComponentCallbacks2;
 import android.content.Context;
+import android.content.res.Configuration;
+import android.os.Bundle;
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.os.SystemClock;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
+import android.support.v4.view.AbsSavedState;
+import android.support.v4.view.ViewCompat;
 import android.support.v7.widget.LinearLayoutManager;
 import android.support.v7.widget.RecyclerView;
 import android.support.v7.widget.SimpleItemAnimator;
 import android.support.v7.widget.StaggeredGridLayoutManager;
 import android.util.AttributeSet;
+import android.util.SparseBooleanArray;
 import android.view.MotionEvent;
+import android.view.View;
 
 /**
  * Created by iSmartGo-XIE on 2017/7/5.
@@ -19,7 +29,75 @@ import android.view.MotionEvent;
 public class RefreshLoadRecyclerView extends RecyclerView {
     private static final String TAG = "testMsg";
 
+    //下拉刷新模式：通过嵌套滑动的越界距离驱动
+    public static final int PULL_MODE_NESTED_SCROLL = 0;
+    //下拉刷新模式：拦截dispatchTouchEvent
+    public static final int PULL_MODE_TOUCH = 1;
+    //RecyclerView默认的一级缓存数量
+    private static final int DEFAULT_ITEM_VIEW_CACHE_SIZE = 2;
+
     private RefreshLoadRecyclerAdapter refreshLoadRecyclerAdapter;
+    private int pullMode = PULL_MODE_NESTED_SCROLL;
+    //本次触摸是否拖动过刷新头部
+    private boolean isNestedPulling = false;
+
+    //可见item查找，结果在每次布局或滑动之后缓存
+    private RefreshLoadEdgeDetector edgeDetector = new DefaultEdgeDetector();
+    private boolean isEdgeCacheValid = false;
+    private int cachedFirstVisiblePosition = NO_POSITION;
+    private int cachedLastVisiblePosition = NO_POSITION;
+
+    //上一次onScrolled的时间，用于估算惯性滑动速度
+    private long lastScrolledTime = -1;
+    //正在拖动快速滑动条，跳过的item不触发加载
+    private boolean isFastScrolling = false;
+    private final Runnable checkLoadRunnable = new Runnable() {
+        @Override
+        public void run() {
+            if (refreshLoadRecyclerAdapter == null || isFastScrolling) return;
+            if (refreshLoadRecyclerAdapter.isLoadPreviousEnable())
+                checkTheTopLoadPrevious(refreshLoadRecyclerAdapter);
+            if (refreshLoadRecyclerAdapter.isAutoLoadMore())
+                checkTheBottomLoadMore(refreshLoadRecyclerAdapter);
+        }
+    };
+
+    //Activity重建后等待Adapter恢复的状态
+    private SavedState pendingRestoreState;
+    //等待内容数量足够后滚动到的位置，用户触摸后放弃
+    private int pendingAnchorPosition = NO_POSITION;
+    private int pendingAnchorOffset = 0;
+
+    private int itemViewCacheSize = DEFAULT_ITEM_VIEW_CACHE_SIZE;
+    private OnTrimMemoryListener onTrimMemoryListener;
+    private final ComponentCallbacks2 trimMemoryCallbacks = new ComponentCallbacks2() {
+        @Override
+        public void onTrimMemory(int level) {
+            trimMemory(level);
+        }
+
+        @Override
+        public void onConfigurationChanged(Configuration newConfig) {
+        }
+
+        @Override
+        public void onLowMemory() {
+            trimMemory(TRIM_MEMORY_COMPLETE);
+        }
+    };
+
+    public interface OnTrimMemoryListener {
+        /**
+         * 内存不足释放缓存后回调，用于统计
+         *
+         * @param level               ComponentCallbacks2.TRIM_MEMORY_*
+         * @param releasedHolderCount 释放的ViewHolder数量，包括一级缓存、RecycledViewPool和预先创建的，
+         *                            使用共用缓存时不包括共用缓存中的
+         * @param releasedItemCount   释放的内容item数量
+         * @param releasedBytes       估算释放的内存，按ViewHolder的View面积以ARGB_8888计算
+         */
+        void onTrimMemory(int level, int releasedHolderCount, int releasedItemCount, long releasedBytes);
+    }
 
     /**
      * @param context context
@@ -44,9 +122,290 @@ public class RefreshLoadRecyclerView extends RecyclerView {
         super.setAdapter(adapter);
         if (adapter instanceof RefreshLoadRecyclerAdapter) {
             refreshLoadRecyclerAdapter = (RefreshLoadRecyclerAdapter) adapter;
+            if (pendingRestoreState != null) restoreLoadState();
+        }
+        invalidateEdgeCache();
+    }
+
+    @Override
+    public void setLayoutManager(@Nullable LayoutManager layout) {
+        super.setLayoutManager(layout);
+        invalidateEdgeCache();
+    }
+
+    @Override
+    protected void onLayout(boolean changed, int l, int t, int r, int b) {
+        //恢复的位置在数据加载后才能滚动过去
+        if (pendingAnchorPosition != NO_POSITION) restoreAnchor();
+        super.onLayout(changed, l, t, r, b);
+        invalidateEdgeCache();
+        if (refreshLoadRecyclerAdapter != null) refreshLoadRecyclerAdapter.onLayoutCompleted();
+    }
+
+    @Override
+    public void onScrolled(int dx, int dy) {
+        //先于OnScrollListener回调
+        invalidateEdgeCache();
+        super.onScrolled(dx, dy);
+    }
+
+    @Override
+    public void offsetChildrenVertical(int dy) {
+        super.offsetChildrenVertical(dy);
+        invalidateEdgeCache();
+    }
+
+    @Override
+    public void setItemViewCacheSize(int size) {
+        super.setItemViewCacheSize(size);
+        itemViewCacheSize = size;
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        getContext().getApplicationContext().registerComponentCallbacks(trimMemoryCallbacks);
+        if (refreshLoadRecyclerAdapter != null) refreshLoadRecyclerAdapter.resumePreInflate();
+    }
+
+    @Override
+    protected void onWindowVisibilityChanged(int visibility) {
+        super.onWindowVisibilityChanged(visibility);
+        //从后台回来时恢复内存不足时暂停的预先创建
+        if (visibility == VISIBLE && refreshLoadRecyclerAdapter != null)
+            refreshLoadRecyclerAdapter.resumePreInflate();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        getContext().getApplicationContext().unregisterComponentCallbacks(trimMemoryCallbacks);
+        removeCallbacks(checkLoadRunnable);
+    }
+
+    /**
+     * 设置内存不足释放缓存的监听
+     *
+     * @param onTrimMemoryListener listener
+     */
+    public void setOnTrimMemoryListener(@Nullable OnTrimMemoryListener onTrimMemoryListener) {
+        this.onTrimMemoryListener = onTrimMemoryListener;
+    }
+
+    /**
+     * 按内存紧张程度释放缓存，列表在窗口上时系统回调onTrimMemory会自动调用
+     * 界面不可见(TRIM_MEMORY_UI_HIDDEN)以上：清空一级缓存、RecycledViewPool和预先创建的ViewHolder，
+     * 使用RefreshLoadViewPoolManager共用缓存时交给manager清空，释放数量通过manager的监听回调
+     * 前台内存不足(TRIM_MEMORY_RUNNING_LOW、TRIM_MEMORY_RUNNING_CRITICAL)和进入后台(TRIM_MEMORY_BACKGROUND)以上：
+     * 通过Adapter的onTrimMemory释放不在屏幕上的数据
+     *
+     * @param level ComponentCallbacks2.TRIM_MEMORY_*
+     */
+    public void trimMemory(int level) {
+        int releasedHolderCount = 0;
+        int releasedItemCount = 0;
+        long releasedBytes = 0;
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN) {
+            RecycledViewPool recycledViewPool = getRecycledViewPool();
+            if (recycledViewPool instanceof RefreshLoadViewPoolManager.SharedViewPool) {
+                //共用缓存由RefreshLoadViewPoolManager统一清空一次，不能只按自己的类型清空别的列表的缓存
+                ((RefreshLoadViewPoolManager.SharedViewPool) recycledViewPool).getManager().trimMemory(level);
+            } else {
+                //一级缓存中的ViewHolder先放进RecycledViewPool，再一起清空
+                flushItemViewCache();
+                if (refreshLoadRecyclerAdapter != null) {
+                    SparseBooleanArray createdViewTypes = refreshLoadRecyclerAdapter.getCreatedViewTypes();
+                    for (int i = 0; i < createdViewTypes.size(); i++) {
+                        ViewHolder holder;
+                        while ((holder = recycledViewPool.getRecycledView(createdViewTypes.keyAt(i))) != null) {
+                            releasedHolderCount++;
+                            releasedBytes += 4L * holder.itemView.getWidth() * holder.itemView.getHeight();
+                        }
+                    }
+                }
+                recycledViewPool.clear();
+            }
+            if (refreshLoadRecyclerAdapter != null)
+                releasedHolderCount += refreshLoadRecyclerAdapter.releasePreInflatedHolders();
+        }
+        if (refreshLoadRecyclerAdapter != null && (level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW
+                || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL
+                || level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND)) {
+            int headersCount = refreshLoadRecyclerAdapter.getHeadersCount();
+            int firstVisiblePosition = findFirstVisibleItemPosition();
+            int lastVisiblePosition = findLastVisibleItemPosition();
+            releasedItemCount = refreshLoadRecyclerAdapter.onTrimMemory(level,
+                    firstVisiblePosition == NO_POSITION ? -1 : Math.max(firstVisiblePosition - headersCount, -1),
+                    lastVisiblePosition == NO_POSITION ? -1 : Math.max(lastVisiblePosition - headersCount, -1));
+        }
+        if (onTrimMemoryListener != null)
+            onTrimMemoryListener.onTrimMemory(level, releasedHolderCount, releasedItemCount, releasedBytes);
+    }
+
+    /**
+     * 把一级缓存中的ViewHolder放进RecycledViewPool
+     */
+    void flushItemViewCache() {
+        super.setItemViewCacheSize(0);
+        super.setItemViewCacheSize(itemViewCacheSize);
+    }
+
+    @Override
+    protected Parcelable onSaveInstanceState() {
+        SavedState savedState = new SavedState(super.onSaveInstanceState());
+        if (pendingRestoreState != null) {
+            //还没有设置Adapter，原样保存
+            savedState.copyFrom(pendingRestoreState);
+        } else if (refreshLoadRecyclerAdapter != null) {
+            if (pendingAnchorPosition != NO_POSITION) {
+                savedState.anchorPosition = pendingAnchorPosition;
+                savedState.anchorOffset = pendingAnchorOffset;
+            } else {
+                saveAnchor(savedState);
+            }
+            savedState.loadMoreState = refreshLoadRecyclerAdapter.getLoadMoreState();
+            savedState.isRefreshing = refreshLoadRecyclerAdapter.isRefreshRequesting();
+            savedState.adapterState = new Bundle();
+            refreshLoadRecyclerAdapter.onSaveLoadState(savedState.adapterState);
+        }
+        return savedState;
+    }
+
+    @Override
+    protected void onRestoreInstanceState(Parcelable state) {
+        if (!(state instanceof SavedState)) {
+            super.onRestoreInstanceState(state);
+            return;
+        }
+        SavedState savedState = (SavedState) state;
+        //LayoutManager先按自己保存的状态恢复，之后restoreAnchor的scrollToPositionWithOffset会覆盖它，
+        //所以最终位置以不包含头部的anchorPosition为准，头部数量变化后也不会错位
+        super.onRestoreInstanceState(savedState.getSuperState());
+        pendingRestoreState = savedState;
+        if (refreshLoadRecyclerAdapter != null) restoreLoadState();
+    }
+
+    /**
+     * 记录第一个可见内容item的position和它到列表起始边的距离
+     */
+    private void saveAnchor(@NonNull SavedState savedState) {
+        if (getLayoutManager() == null) return;
+        int headersCount = refreshLoadRecyclerAdapter.getHeadersCount();
+        int realItemCount = refreshLoadRecyclerAdapter.getRealItemCount();
+        for (int i = 0, count = getChildCount(); i < count; i++) {
+            View child = getChildAt(i);
+            int position = getChildAdapterPosition(child) - headersCount;
+            if (position < 0 || position >= realItemCount) continue;
+            if (savedState.anchorPosition != NO_POSITION && position > savedState.anchorPosition) continue;
+            savedState.anchorPosition = position;
+            savedState.anchorOffset = getAnchorOffset(this, child);
         }
     }
 
+    /**
+     * 获取item到列表起始边的距离，按主轴方向计算并包含margin，与scrollToPositionWithOffset的offset一致
+     *
+     * @param recyclerView 设置了LayoutManager的列表
+     * @param child        列表中的item
+     * @return offset
+     */
+    static int getAnchorOffset(@NonNull RecyclerView recyclerView, @NonNull View child) {
+        LayoutManager layoutManager = recyclerView.getLayoutManager();
+        LayoutParams lp = (LayoutParams) child.getLayoutParams();
+        return layoutManager.canScrollVertically()
+                ? layoutManager.getDecoratedTop(child) - lp.topMargin - recyclerView.getPaddingTop()
+                : layoutManager.getDecoratedLeft(child) - lp.leftMargin - recyclerView.getPaddingLeft();
+    }
+
+    /**
+     * 交给Adapter恢复加载进度，恢复成功后恢复加载更多的状态，被打断的刷新重新开始
+     */
+    private void restoreLoadState() {
+        SavedState savedState = pendingRestoreState;
+        pendingRestoreState = null;
+        boolean isRestored = savedState.adapterState != null
+                && refreshLoadRecyclerAdapter.onRestoreLoadState(savedState.adapterState, savedState.anchorPosition);
+        if (isRestored) {
+            //被打断的加载更多等恢复的数据布局完成后按位置重新检测
+            if (refreshLoadRecyclerAdapter.restoreLoadMoreState(savedState.loadMoreState))
+                post(checkLoadRunnable);
+            if (savedState.isRefreshing && !refreshLoadRecyclerAdapter.isRefreshRequesting())
+                refreshLoadRecyclerAdapter.refresh();
+        }
+        pendingAnchorPosition = savedState.anchorPosition;
+        pendingAnchorOffset = savedState.anchorOffset;
+        if (pendingAnchorPosition != NO_POSITION) restoreAnchor();
+    }
+
+    /**
+     * 内容数量足够时滚动到保存的位置，Adapter没有恢复数据时等到数据加载后再滚动
+     * LinearLayoutManager和StaggeredGridLayoutManager的scrollToPositionWithOffset会丢弃还没有应用的自身SavedState，
+     * 两次恢复不会叠加；数据还没加载时LayoutManager的恢复只作用于头部，内容加载后再以这里为准
+     */
+    private void restoreAnchor() {
+        if (refreshLoadRecyclerAdapter == null || getLayoutManager() == null
+                || refreshLoadRecyclerAdapter.getRealItemCount() <= pendingAnchorPosition) return;
+        int position = pendingAnchorPosition + refreshLoadRecyclerAdapter.getHeadersCount();
+        pendingAnchorPosition = NO_POSITION;
+        LayoutManager layoutManager = getLayoutManager();
+        if (layoutManager instanceof LinearLayoutManager) {
+            ((LinearLayoutManager) layoutManager).scrollToPositionWithOffset(position, pendingAnchorOffset);
+        } else if (layoutManager instanceof StaggeredGridLayoutManager) {
+            ((StaggeredGridLayoutManager) layoutManager).scrollToPositionWithOffset(position, pendingAnchorOffset);
+        } else {
+            layoutManager.scrollToPosition(position);
+        }
+    }
+
+    /**
+     * 设置可见item查找，用于自定义LayoutManager
+     *
+     * @param edgeDetector 为null时使用DefaultEdgeDetector
+     */
+    public void setEdgeDetector(@Nullable RefreshLoadEdgeDetector edgeDetector) {
+        this.edgeDetector = edgeDetector == null ? new DefaultEdgeDetector() : edgeDetector;
+        invalidateEdgeCache();
+    }
+
+    /**
+     * 获取第一个可见item，同一次布局或滑动之内重复调用直接返回缓存结果
+     *
+     * @return adapter position(包含头部)，没有可见item时返回NO_POSITION
+     */
+    public int findFirstVisibleItemPosition() {
+        ensureEdgeCache();
+        return cachedFirstVisiblePosition;
+    }
+
+    /**
+     * 获取最后一个可见item，同一次布局或滑动之内重复调用直接返回缓存结果
+     *
+     * @return adapter position(包含头部)，没有可见item时返回NO_POSITION
+     */
+    public int findLastVisibleItemPosition() {
+        ensureEdgeCache();
+        return cachedLastVisiblePosition;
+    }
+
+    /**
+     * 让可见item缓存失效，子View位置在布局和滑动之外发生变化时调用
+     */
+    public void invalidateEdgeCache() {
+        isEdgeCacheValid = false;
+    }
+
+    private void ensureEdgeCache() {
+        if (isEdgeCacheValid) return;
+        if (getLayoutManager() == null) {
+            cachedFirstVisiblePosition = NO_POSITION;
+            cachedLastVisiblePosition = NO_POSITION;
+        } else {
+            cachedFirstVisiblePosition = edgeDetector.findFirstVisibleItemPosition(this);
+            cachedLastVisiblePosition = edgeDetector.findLastVisibleItemPosition(this);
+        }
+        isEdgeCacheValid = true;
+    }
+
     private void initView(Context context) {
         setLayoutManager(new LinearLayoutManager(context));
 
@@ -59,9 +418,51 @@ public class RefreshLoadRecyclerView extends RecyclerView {
 ////                    ((StaggeredGridLayoutManager) getLayoutManager()).invalidateSpanAssignments();
 ////                }
 //            }
+            @Override
+            public void onScrollStateChanged(@NonNull RecyclerView recyclerView, int newState) {
+                super.onScrollStateChanged(recyclerView, newState);
+                if (refreshLoadRecyclerAdapter == null) return;
+                //惯性滑动结束(停止或者被手指按住)，完整绑定可见的item
+                if (newState != SCROLL_STATE_SETTLING) {
+                    lastScrolledTime = -1;
+                    if (refreshLoadRecyclerAdapter.isLiteBindEnable())
+                        refreshLoadRecyclerAdapter.stopLiteBinding();
+                }
+                if (newState == SCROLL_STATE_IDLE && refreshLoadRecyclerAdapter.getAdaptiveLoadMoreTrigger() != null) {
+                    refreshLoadRecyclerAdapter.getAdaptiveLoadMoreTrigger().onScrollIdle();
+                }
+                if (newState == SCROLL_STATE_IDLE && refreshLoadRecyclerAdapter.getPrefetchDispatcher() != null) {
+                    refreshLoadRecyclerAdapter.getPrefetchDispatcher().onScrollIdle();
+                }
+                //滑动过程中统计卡顿帧
+                RefreshLoadMetrics metrics = refreshLoadRecyclerAdapter.getMetrics();
+                if (metrics != null) {
+                    if (newState == SCROLL_STATE_IDLE) {
+                        metrics.stopFrameMonitor();
+                    } else {
+                        metrics.startFrameMonitor();
+                    }
+                }
+            }
+
             @Override
             public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
                 super.onScrolled(recyclerView, dx, dy);
+                if (isFastScrolling) return;
+                if (refreshLoadRecyclerAdapter != null && refreshLoadRecyclerAdapter.isLiteBindEnable())
+                    updateLiteBinding(dx, dy);
+                if (refreshLoadRecyclerAdapter != null && refreshLoadRecyclerAdapter.getPrefetchDispatcher() != null)
+                    dispatchPrefetch(refreshLoadRecyclerAdapter.getPrefetchDispatcher(), dx, dy);
+                if (refreshLoadRecyclerAdapter != null && refreshLoadRecyclerAdapter.getAdaptiveLoadMoreTrigger() != null
+                        && getLayoutManager() != null) {
+                    //记录主轴方向的滑动速度，反向滑动时速度随之下降
+                    refreshLoadRecyclerAdapter.getAdaptiveLoadMoreTrigger().onScrolled(
+                            getLayoutManager().canScrollVertically() ? dy : dx, SystemClock.uptimeMillis());
+                }
+                if (refreshLoadRecyclerAdapter != null && refreshLoadRecyclerAdapter.isLoadPreviousEnable() && dy < 0) {
+                    //下滑操作
+                    checkTheTopLoadPrevious(refreshLoadRecyclerAdapter);
+                }
                 if (refreshLoadRecyclerAdapter != null && refreshLoadRecyclerAdapter.isAutoLoadMore() && dy > 0) {
                     //上滑操作
                     checkTheBottomLoadMore(refreshLoadRecyclerAdapter);
@@ -71,45 +472,227 @@ public class RefreshLoadRecyclerView extends RecyclerView {
     }
 
     boolean checkOnTop() {
-        int index = -1;
-        if (getLayoutManager() instanceof StaggeredGridLayoutManager) {
-            index = ((StaggeredGridLayoutManager) getLayoutManager()).findFirstVisibleItemPositions(null)[0];
-        } else if (getLayoutManager() instanceof LinearLayoutManager) {
-            index = ((LinearLayoutManager) getLayoutManager()).findFirstVisibleItemPosition();
-        }
-        return index == 0 || !canScrollVertically(-1);
+        return findFirstVisibleItemPosition() == 0 || !canScrollVertically(-1);
     }
 
     @Override
     public boolean dispatchTouchEvent(MotionEvent ev) {
+        if (ev.getActionMasked() == MotionEvent.ACTION_DOWN) pendingAnchorPosition = NO_POSITION;
         boolean isDispatch = false;
-        if (refreshLoadRecyclerAdapter != null && refreshLoadRecyclerAdapter.isPullToRefresh()) {
+        if (pullMode == PULL_MODE_TOUCH && !isFastScrolling && refreshLoadRecyclerAdapter != null && refreshLoadRecyclerAdapter.isPullToRefresh()) {
             isDispatch = refreshLoadRecyclerAdapter.dispatchTouchEvent(ev, this);
         }
         return isDispatch || super.dispatchTouchEvent(ev);
     }
 
+    /**
+     * 开始或结束快速滑动条的拖动
+     * 拖动过程中不检测加载更多和向前加载，结束后按最终位置检测一次
+     *
+     * @param fastScrolling 是否正在拖动
+     */
+    void setFastScrolling(boolean fastScrolling) {
+        if (isFastScrolling == fastScrolling) return;
+        isFastScrolling = fastScrolling;
+        removeCallbacks(checkLoadRunnable);
+        //等跳转后的布局完成再检测
+        if (!fastScrolling) post(checkLoadRunnable);
+    }
+
+    boolean isFastScrolling() {
+        return isFastScrolling;
+    }
+
+    /**
+     * 设置下拉刷新模式
+     *
+     * @param pullMode {@link #PULL_MODE_NESTED_SCROLL}或{@link #PULL_MODE_TOUCH}，默认为PULL_MODE_NESTED_SCROLL
+     */
+    public void setPullMode(int pullMode) {
+        this.pullMode = pullMode;
+    }
+
+    public int getPullMode() {
+        return pullMode;
+    }
+
+    /**
+     * 获取嵌套滑动模式下可用的刷新头部
+     *
+     * @return 不可用时返回null
+     */
+    @Nullable
+    private BaseRefreshHeader getNestedPullHeader() {
+        if (pullMode != PULL_MODE_NESTED_SCROLL || refreshLoadRecyclerAdapter == null || !refreshLoadRecyclerAdapter.isPullToRefresh())
+            return null;
+        BaseRefreshHeader refreshHeader = refreshLoadRecyclerAdapter.getRefreshHeader();
+        //正在刷新或刷新完成回弹时不响应拖动，正常滑动列表
+        if (refreshHeader == null || refreshHeader.getState() == BaseRefreshHeader.STATE_REFRESHING
+                || refreshHeader.getState() == BaseRefreshHeader.STATE_REFRESH_FINISH)
+            return null;
+        return refreshHeader;
+    }
+
+    @Override
+    public boolean dispatchNestedPreScroll(int dx, int dy, int[] consumed, int[] offsetInWindow, int type) {
+        //先让父布局处理
+        boolean isDispatch = super.dispatchNestedPreScroll(dx, dy, consumed, offsetInWindow, type);
+        BaseRefreshHeader refreshHeader = getNestedPullHeader();
+        if (refreshHeader == null || type != ViewCompat.TYPE_TOUCH) return isDispatch;
+        int remainY = consumed == null || !isDispatch ? dy : dy - consumed[1];
+        //头部已经拉出来时，上滑先收起头部
+        if (remainY > 0 && refreshHeader.getVisibleHeight() > BaseRefreshHeader.MIN_HEIGHT) {
+            refreshHeader.onPull(-remainY);
+            isNestedPulling = true;
+            if (consumed != null) {
+                if (!isDispatch) consumed[0] = 0;
+                consumed[1] = dy;
+            }
+            return true;
+        }
+        return isDispatch;
+    }
+
+    @Override
+    public boolean dispatchNestedScroll(int dxConsumed, int dyConsumed, int dxUnconsumed, int dyUnconsumed, int[] offsetInWindow, int type) {
+        boolean isDispatch = super.dispatchNestedScroll(dxConsumed, dyConsumed, dxUnconsumed, dyUnconsumed, offsetInWindow, type);
+        BaseRefreshHeader refreshHeader = getNestedPullHeader();
+        //惯性滑动不触发刷新
+        if (refreshHeader == null || type != ViewCompat.TYPE_TOUCH || dyUnconsumed >= 0) return isDispatch;
+        //父布局还在跟随移动(例如AppBarLayout展开中)，交给父布局
+        if (isDispatch && offsetInWindow != null && offsetInWindow[1] != 0) return true;
+        //已经到顶还在下拉，越界部分用于拉出头部
+        refreshHeader.onPull(-dyUnconsumed);
+        isNestedPulling = true;
+        return true;
+    }
+
+    @Override
+    public void stopNestedScroll(int type) {
+        super.stopNestedScroll(type);
+        if (type == ViewCompat.TYPE_TOUCH && isNestedPulling) {
+            isNestedPulling = false;
+            BaseRefreshHeader refreshHeader = getNestedPullHeader();
+            if (refreshHeader != null) refreshHeader.onRelease();
+        }
+    }
+
+    @Override
+    public boolean fling(int velocityX, int velocityY) {
+        //头部拉出来时松手，不产生惯性滑动
+        BaseRefreshHeader refreshHeader = getNestedPullHeader();
+        if (isNestedPulling && refreshHeader != null && refreshHeader.getVisibleHeight() > BaseRefreshHeader.MIN_HEIGHT)
+            return false;
+        boolean isFling = super.fling(velocityX, velocityY);
+        //惯性滑动开始时的速度，第一帧的绑定就可以使用简单绑定
+        if (isFling && refreshLoadRecyclerAdapter != null && refreshLoadRecyclerAdapter.isLiteBindEnable()
+                && Math.max(Math.abs(velocityX), Math.abs(velocityY)) > refreshLoadRecyclerAdapter.getLiteBindVelocity()) {
+            refreshLoadRecyclerAdapter.startLiteBinding();
+        }
+        return isFling;
+    }
+
+    /**
+     * 把可见范围换算成内容position，交给PrefetchDispatcher计算即将出现的范围
+     */
+    private void dispatchPrefetch(@NonNull PrefetchDispatcher prefetchDispatcher, int dx, int dy) {
+        if (getLayoutManager() == null) return;
+        int firstVisiblePosition = findFirstVisibleItemPosition();
+        int lastVisiblePosition = findLastVisibleItemPosition();
+        if (firstVisiblePosition == NO_POSITION || lastVisiblePosition == NO_POSITION) return;
+        boolean isVertical = getLayoutManager().canScrollVertically();
+        int headersCount = refreshLoadRecyclerAdapter.getHeadersCount();
+        prefetchDispatcher.onScrolled(isVertical ? dy : dx,
+                firstVisiblePosition - headersCount, lastVisiblePosition - headersCount,
+                isVertical ? getHeight() : getWidth(),
+                refreshLoadRecyclerAdapter.getRealItemCount(), SystemClock.uptimeMillis());
+    }
+
+    /**
+     * 根据每帧的滑动距离估算惯性滑动速度，决定是否继续使用简单绑定
+     */
+    private void updateLiteBinding(int dx, int dy) {
+        if (getScrollState() != SCROLL_STATE_SETTLING || (dx == 0 && dy == 0)) return;
+        long now = SystemClock.uptimeMillis();
+        long dt = now - lastScrolledTime;
+        if (lastScrolledTime >= 0 && dt > 0) {
+            float velocity = Math.max(Math.abs(dx), Math.abs(dy)) * 1000F / dt;
+            if (velocity > refreshLoadRecyclerAdapter.getLiteBindVelocity()) {
+                refreshLoadRecyclerAdapter.startLiteBinding();
+            } else {
+                refreshLoadRecyclerAdapter.pauseLiteBinding();
+            }
+        }
+        lastScrolledTime = now;
+    }
+
     /**
      * 检测是否需要自动加载
      * 当滑动到底部的时候开始自动加载更多
      */
-    private void checkTheBottomLoadMore(@NonNull RefreshLoadRecyclerAdapter refreshLoadRecyclerAdapter) {
+    void checkTheBottomLoadMore(@NonNull RefreshLoadRecyclerAdapter refreshLoadRecyclerAdapter) {
         if (getLayoutManager() == null) return;
-        int startLoadIndex = refreshLoadRecyclerAdapter.getRealItemCount() - refreshLoadRecyclerAdapter.getLoadMoreKey();
+        int realItemCount = refreshLoadRecyclerAdapter.getRealItemCount();
         //判断是否滚动到底部
-        if (!refreshLoadRecyclerAdapter.isPullLoading() && refreshLoadRecyclerAdapter.getRealItemCount() > 0) {
-            int visibleIndex = 0;
-            if (getLayoutManager() instanceof StaggeredGridLayoutManager) {
-                visibleIndex = ((StaggeredGridLayoutManager) getLayoutManager()).findLastVisibleItemPositions(null)[0] - refreshLoadRecyclerAdapter.getHeadersCount();
-            } else if (getLayoutManager() instanceof LinearLayoutManager) {
-                visibleIndex = ((LinearLayoutManager) getLayoutManager()).findLastVisibleItemPosition() - refreshLoadRecyclerAdapter.getHeadersCount();
+        if (!refreshLoadRecyclerAdapter.isPullLoading() && realItemCount > 0) {
+            int lastVisiblePosition = findLastVisibleItemPosition();
+            if (lastVisiblePosition == NO_POSITION) return;
+            int headersCount = refreshLoadRecyclerAdapter.getHeadersCount();
+            int visibleIndex = lastVisiblePosition - headersCount;
+            AdaptiveLoadMoreTrigger trigger = refreshLoadRecyclerAdapter.getAdaptiveLoadMoreTrigger();
+            if (trigger == null) {
+                //自动加载
+                if (visibleIndex >= realItemCount - refreshLoadRecyclerAdapter.getLoadMoreKey())
+                    refreshLoadRecyclerAdapter.startLoadMore();
+                return;
+            }
+            //自适应加载代替loadMoreKey，最后一个内容item可见时总是加载
+            if (visibleIndex >= realItemCount - 1) {
+                refreshLoadRecyclerAdapter.startLoadMore();
+                return;
             }
-            //自动加载
-            if (visibleIndex >= startLoadIndex)
+            if (visibleIndex < 0) return;
+            sampleItemHeight(trigger, headersCount, realItemCount);
+            //估算到底时间是否小于平均加载耗时
+            if (trigger.shouldLoad(realItemCount - 1 - visibleIndex))
                 refreshLoadRecyclerAdapter.startLoadMore();
         }
     }
 
+    /**
+     * 只用可见的内容item采样平均高度，不包含头部和尾部
+     */
+    private void sampleItemHeight(@NonNull AdaptiveLoadMoreTrigger trigger, int headersCount, int realItemCount) {
+        LayoutManager layoutManager = getLayoutManager();
+        boolean isVertical = layoutManager.canScrollVertically();
+        int start = Integer.MAX_VALUE;
+        int end = Integer.MIN_VALUE;
+        int count = 0;
+        for (int i = 0, childCount = getChildCount(); i < childCount; i++) {
+            View child = getChildAt(i);
+            int position = getChildLayoutPosition(child) - headersCount;
+            if (position < 0 || position >= realItemCount) continue;
+            count++;
+            start = Math.min(start, isVertical ? layoutManager.getDecoratedTop(child) : layoutManager.getDecoratedLeft(child));
+            end = Math.max(end, isVertical ? layoutManager.getDecoratedBottom(child) : layoutManager.getDecoratedRight(child));
+        }
+        if (count > 0) trigger.onItemHeightSampled(end - start, count);
+    }
+
+    /**
+     * 检测是否需要向前加载
+     * 当第一个可见内容item接近顶部的时候开始加载
+     */
+    private void checkTheTopLoadPrevious(@NonNull RefreshLoadRecyclerAdapter refreshLoadRecyclerAdapter) {
+        if (getLayoutManager() == null) return;
+        if (refreshLoadRecyclerAdapter.isPreviousLoading() || refreshLoadRecyclerAdapter.getRealItemCount() <= 0) return;
+        int firstVisiblePosition = findFirstVisibleItemPosition();
+        if (firstVisiblePosition == NO_POSITION) return;
+        int visibleIndex = firstVisiblePosition - refreshLoadRecyclerAdapter.getHeadersCount();
+        if (visibleIndex <= refreshLoadRecyclerAdapter.getLoadPreviousKey())
+            refreshLoadRecyclerAdapter.startLoadPrevious();
+    }
+
     /**
      * 打开默认局部刷新动画
      */
@@ -131,4 +714,65 @@ public class RefreshLoadRecyclerView extends RecyclerView {
         this.getItemAnimator().setRemoveDuration(0);
         ((SimpleItemAnimator) this.getItemAnimator()).setSupportsChangeAnimations(false);
     }
+
+    /**
+     * 只保存恢复位置和加载进度需要的少量数据，item本身由Adapter重新加载
+     */
+    static class SavedState extends AbsSavedState {
+        //第一个可见的内容position，不包含头部
+        int anchorPosition = NO_POSITION;
+        int anchorOffset = 0;
+        int loadMoreState = BaseLoadMoreFooter.STATE_LOAD_FINISH;
+        boolean isRefreshing = false;
+        //Adapter的onSaveLoadState保存的数据
+        Bundle adapterState;
+
+        SavedState(Parcelable superState) {
+            super(superState);
+        }
+
+        SavedState(Parcel in, ClassLoader loader) {
+            super(in, loader);
+            anchorPosition = in.readInt();
+            anchorOffset = in.readInt();
+            loadMoreState = in.readInt();
+            isRefreshing = in.readInt() == 1;
+            adapterState = in.readBundle(loader == null ? SavedState.class.getClassLoader() : loader);
+        }
+
+        void copyFrom(@NonNull SavedState other) {
+            anchorPosition = other.anchorPosition;
+            anchorOffset = other.anchorOffset;
+            loadMoreState = other.loadMoreState;
+            isRefreshing = other.isRefreshing;
+            adapterState = other.adapterState;
+        }
+
+        @Override
+        public void writeToParcel(Parcel dest, int flags) {
+            super.writeToParcel(dest, flags);
+            dest.writeInt(anchorPosition);
+            dest.writeInt(anchorOffset);
+            dest.writeInt(loadMoreState);
+            dest.writeInt(isRefreshing ? 1 : 0);
+            dest.writeBundle(adapterState);
+        }
+
+        public static final Creator<SavedState> CREATOR = new ClassLoaderCreator<SavedState>() {
+            @Override
+            public SavedState createFromParcel(Parcel in, ClassLoader loader) {
+                return new SavedState(in, loader);
+            }
+
+            @Override
+            public SavedState createFromParcel(Parcel in) {
+                return new SavedState(in, null);
+            }
+
+            @Override
+            public SavedState[] newArray(int size) {
+                return new SavedState[size];
+            }
+        };
+    }
 }
@@ -0,0 +1,167 @@
+package com.xie.rlrecycleview.view;
+
+import android.support.annotation.NonNull;
+import android.support.v7.widget.RecyclerView;
+
+/**
+ * Created by Anthony on 2019/5/10.
+ * Describe:
+ * 内容item的分组索引，用于悬浮分组头部和快速滑动的分组提示
+ * 连续的、分组key相同的item为一组，position都是内容position，不包含头部
+ * 数据变化后标记失效，下次查询时重新遍历一次建立索引，查询通过二分查找完成
+ */
+public class RefreshLoadSectionIndex {
+    private final RefreshLoadRecyclerAdapter refreshLoadRecyclerAdapter;
+    private final SectionKeyProvider sectionKeyProvider;
+
+    //每组第一个item的position，递增
+    private int[] sectionStarts = new int[16];
+    private Object[] sectionKeys = new Object[16];
+    private int sectionCount = 0;
+    private boolean isDirty = true;
+    private final RecyclerView.AdapterDataObserver dataObserver = new RecyclerView.AdapterDataObserver() {
+        @Override
+        public void onChanged() {
+            invalidate();
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount) {
+            invalidate();
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            invalidate();
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            invalidate();
+        }
+
+        @Override
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+            invalidate();
+        }
+    };
+
+    public interface SectionKeyProvider {
+        /**
+         * 获取item所属分组的key，例如首字母或日期
+         *
+         * @param position 内容position，不包含头部
+         * @return 分组key，相邻item的key通过equals比较
+         */
+        Object getSectionKey(int position);
+    }
+
+    public RefreshLoadSectionIndex(@NonNull RefreshLoadRecyclerAdapter refreshLoadRecyclerAdapter, @NonNull SectionKeyProvider sectionKeyProvider) {
+        this.refreshLoadRecyclerAdapter = refreshLoadRecyclerAdapter;
+        this.sectionKeyProvider = sectionKeyProvider;
+        refreshLoadRecyclerAdapter.registerAdapterDataObserver(dataObserver);
+    }
+
+    /**
+     * 不再使用时调用，停止监听Adapter
+     */
+    public void release() {
+        refreshLoadRecyclerAdapter.unregisterAdapterDataObserver(dataObserver);
+        invalidate();
+    }
+
+    /**
+     * 标记索引失效，分组key在没有通知的情况下发生变化时调用
+     */
+    public void invalidate() {
+        isDirty = true;
+    }
+
+    public int getSectionCount() {
+        ensureIndex();
+        return sectionCount;
+    }
+
+    /**
+     * 获取分组key
+     *
+     * @param section 分组
+     * @return key
+     */
+    public Object getSectionKey(int section) {
+        ensureIndex();
+        return sectionKeys[section];
+    }
+
+    /**
+     * 获取分组第一个item的position
+     *
+     * @param section 分组
+     * @return 内容position
+     */
+    public int getSectionStart(int section) {
+        ensureIndex();
+        return sectionStarts[section];
+    }
+
+    /**
+     * 获取item所属的分组
+     *
+     * @param position 内容position，不包含头部
+     * @return 分组，没有内容或position小于0时返回-1
+     */
+    public int getSectionForPosition(int position) {
+        ensureIndex();
+        if (sectionCount == 0 || position < 0) return -1;
+        //最后一个起始位置不大于position的分组
+        int low = 0;
+        int high = sectionCount - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (sectionStarts[mid] <= position) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 判断item是否是分组的第一个
+     *
+     * @param position 内容position，不包含头部
+     * @return boolean
+     */
+    public boolean isSectionStart(int position) {
+        int section = getSectionForPosition(position);
+        return section >= 0 && sectionStarts[section] == position;
+    }
+
+    private void ensureIndex() {
+        if (!isDirty) return;
+        isDirty = false;
+        sectionCount = 0;
+        Object lastKey = null;
+        for (int i = 0, count = refreshLoadRecyclerAdapter.getRealItemCount(); i < count; i++) {
+            Object key = sectionKeyProvider.getSectionKey(i);
+            if (i > 0 && (key == null ? lastKey == null : key.equals(lastKey))) continue;
+            if (sectionCount == sectionStarts.length) {
+                int[] newStarts = new int[sectionCount * 2];
+                Object[] newKeys = new Object[sectionCount * 2];
+                System.arraycopy(sectionStarts, 0, newStarts, 0, sectionCount);
+                System.arraycopy(sectionKeys, 0, newKeys, 0, sectionCount);
+                sectionStarts = newStarts;
+                sectionKeys = newKeys;
+            }
+            sectionStarts[sectionCount] = i;
+            sectionKeys[sectionCount] = key;
+            sectionCount++;
+            lastKey = key;
+        }
+        //释放不再使用的key
+        for (int i = sectionCount; i < sectionKeys.length && sectionKeys[i] != null; i++) {
+            sectionKeys[i] = null;
+        }
+    }
+}
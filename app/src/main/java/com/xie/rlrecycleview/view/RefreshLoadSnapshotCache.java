@@ -0,0 +1,213 @@
+package com.xie.rlrecycleview.view;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.NonNull;
+import android.util.Log;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Created by Anthony on 2019/4/18.
+ * Describe:
+ * 列表数据的本地快照
+ * 把前maxItemCount条数据通过ItemSerializer写成紧凑的二进制文件，启动时通过内存映射读取，
+ * 配合RefreshLoadListAdapter.restoreSnapshot在网络数据返回前先显示上一次的内容
+ * 启动时从列表顶部开始显示，刷新也从第一页开始替换，所以保存的是最近一次加载的前几页
+ * 文件损坏或读取失败时当作没有快照，并删除文件
+ */
+public class RefreshLoadSnapshotCache<T> {
+    private static final String TAG = "SnapshotCache";
+    private static final int MAGIC = 0x524C5343;//RLSC
+    private static final int VERSION = 1;
+
+    private final File file;
+    private final ItemSerializer<T> serializer;
+    private final int maxItemCount;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    //读写都在同一个线程，保证顺序，所有实例共用
+    private static Executor sIoExecutor;
+
+    public interface ItemSerializer<T> {
+        void write(@NonNull T item, @NonNull DataOutput out) throws IOException;
+
+        @NonNull
+        T read(@NonNull DataInput in) throws IOException;
+    }
+
+    public interface OnSnapshotLoadListener<T> {
+        /**
+         * 在主线程回调
+         *
+         * @param items 快照数据，没有快照或读取失败时为空List
+         */
+        void onSnapshotLoaded(@NonNull List<T> items);
+    }
+
+    /**
+     * @param file         快照文件
+     * @param serializer   item序列化
+     * @param maxItemCount 最多保存多少条数据，一般为页数*每页数量
+     */
+    public RefreshLoadSnapshotCache(@NonNull File file, @NonNull ItemSerializer<T> serializer, int maxItemCount) {
+        this.file = file;
+        this.serializer = serializer;
+        this.maxItemCount = maxItemCount;
+    }
+
+    /**
+     * 在后台线程保存快照
+     *
+     * @param items 数据，保存期间不能被修改
+     */
+    public void save(@NonNull List<T> items) {
+        final List<T> snapshot = items.size() > maxItemCount ? items.subList(0, maxItemCount) : items;
+        getIoExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    write(snapshot);
+                } catch (IOException | RuntimeException e) {
+                    Log.w(TAG, "save snapshot failed", e);
+                }
+            }
+        });
+    }
+
+    /**
+     * 在后台线程读取快照，在主线程回调
+     *
+     * @param listener listener
+     */
+    public void load(@NonNull final OnSnapshotLoadListener<T> listener) {
+        getIoExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                List<T> items;
+                try {
+                    items = read();
+                } catch (IOException | RuntimeException e) {
+                    //文件损坏或者和序列化格式不匹配，当作没有快照
+                    Log.w(TAG, "load snapshot failed", e);
+                    items = Collections.emptyList();
+                    if (file.exists() && !file.delete()) Log.w(TAG, "delete snapshot failed");
+                }
+                final List<T> result = items;
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        listener.onSnapshotLoaded(result);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * 删除快照
+     */
+    public void clear() {
+        getIoExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                if (file.exists() && !file.delete()) Log.w(TAG, "delete snapshot failed");
+            }
+        });
+    }
+
+    private static Executor getIoExecutor() {
+        synchronized (RefreshLoadSnapshotCache.class) {
+            if (sIoExecutor == null) {
+                sIoExecutor = Executors.newSingleThreadExecutor();
+            }
+            return sIoExecutor;
+        }
+    }
+
+    private void write(List<T> items) throws IOException {
+        //先写临时文件再替换，防止写到一半被杀掉
+        File tempFile = new File(file.getPath() + ".tmp");
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(items.size());
+            for (int i = 0; i < items.size(); i++) {
+                serializer.write(items.get(i), out);
+            }
+        } finally {
+            out.close();
+        }
+        if (!tempFile.renameTo(file)) {
+            throw new IOException("rename " + tempFile + " failed");
+        }
+    }
+
+    @NonNull
+    private List<T> read() throws IOException {
+        if (!file.exists() || file.length() == 0) return Collections.emptyList();
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = randomAccessFile.getChannel();
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            DataInputStream in = new DataInputStream(new ByteBufferInputStream(buffer));
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) return Collections.emptyList();
+            int count = in.readInt();
+            if (count < 0) throw new IOException("corrupt snapshot, count " + count);
+            //数量只用于预分配，不超过剩余字节数，截断的文件在读取item时抛出EOFException
+            List<T> items = new ArrayList<>(Math.min(Math.min(count, maxItemCount), buffer.remaining()));
+            for (int i = 0; i < count && i < maxItemCount; i++) {
+                items.add(serializer.read(in));
+            }
+            return items;
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+
+    /**
+     * 直接从映射内存读取，不复制整个文件
+     */
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(@NonNull byte[] bytes, int offset, int length) {
+            if (!buffer.hasRemaining()) return -1;
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.xie.rlrecycleview.view;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Rect;
+import android.support.annotation.NonNull;
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+import android.view.ViewGroup;
+
+/**
+ * Created by Anthony on 2019/5/10.
+ * Describe:
+ * 悬浮的分组头部
+ * 每组第一个item上方留出头部的高度，当前分组的头部固定在列表顶部，被下一组的头部顶上去
+ * 头部View不加入RecyclerView，每个分组只在第一次出现时绑定并绘制到缓存的Bitmap中，之后直接绘制Bitmap
+ * 所有分组的头部高度相同，使用第一组绑定后的高度
+ */
+public class RefreshLoadStickyHeaderDecoration extends RecyclerView.ItemDecoration {
+    //初始缓存的分组数量，同一屏的分组更多时扩大
+    private static final int INITIAL_CACHE_SIZE = 4;
+
+    private final RefreshLoadRecyclerAdapter refreshLoadRecyclerAdapter;
+    private final RefreshLoadSectionIndex sectionIndex;
+    private final StickyHeaderBinder stickyHeaderBinder;
+
+    private View headerView;
+    private int headerWidth = -1;
+    private int headerHeight = 0;
+
+    //Bitmap缓存，按最近使用时间淘汰，当前帧已经绘制的不淘汰
+    private int[] cachedSections = new int[INITIAL_CACHE_SIZE];
+    private Bitmap[] cachedBitmaps = new Bitmap[INITIAL_CACHE_SIZE];
+    private long[] cachedUseTimes = new long[INITIAL_CACHE_SIZE];
+    private long drawCount = 0;
+    private final Canvas renderCanvas = new Canvas();
+    //数据变化后分组可能改变
+    private final RecyclerView.AdapterDataObserver dataObserver = new RecyclerView.AdapterDataObserver() {
+        @Override
+        public void onChanged() {
+            clearCache();
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount) {
+            clearCache();
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            clearCache();
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            clearCache();
+        }
+
+        @Override
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+            clearCache();
+        }
+    };
+
+    public interface StickyHeaderBinder {
+        /**
+         * 创建头部View，只调用一次
+         *
+         * @param parent RecyclerView，只用于生成LayoutParams，不要把View加进去
+         * @return 头部View
+         */
+        @NonNull
+        View onCreateStickyHeader(@NonNull ViewGroup parent);
+
+        /**
+         * 绑定分组数据，每个分组第一次显示时调用
+         *
+         * @param headerView 头部View
+         * @param section    分组，可以通过RefreshLoadSectionIndex.getSectionKey获取key
+         */
+        void onBindStickyHeader(@NonNull View headerView, int section);
+    }
+
+    public RefreshLoadStickyHeaderDecoration(@NonNull RefreshLoadRecyclerAdapter refreshLoadRecyclerAdapter,
+                                             @NonNull RefreshLoadSectionIndex sectionIndex,
+                                             @NonNull StickyHeaderBinder stickyHeaderBinder) {
+        this.refreshLoadRecyclerAdapter = refreshLoadRecyclerAdapter;
+        this.sectionIndex = sectionIndex;
+        this.stickyHeaderBinder = stickyHeaderBinder;
+        clearCache();
+        refreshLoadRecyclerAdapter.registerAdapterDataObserver(dataObserver);
+    }
+
+    /**
+     * 清空绘制缓存，头部显示的内容在数据之外发生变化时调用
+     */
+    public void clearCache() {
+        for (int i = 0; i < cachedSections.length; i++) {
+            cachedSections[i] = -1;
+        }
+    }
+
+    /**
+     * 移除decoration后调用，停止监听Adapter并释放缓存的Bitmap
+     */
+    public void release() {
+        refreshLoadRecyclerAdapter.unregisterAdapterDataObserver(dataObserver);
+        clearCache();
+        for (int i = 0; i < cachedBitmaps.length; i++) {
+            cachedBitmaps[i] = null;
+        }
+        headerView = null;
+        headerWidth = -1;
+    }
+
+    @Override
+    public void getItemOffsets(@NonNull Rect outRect, @NonNull View view, @NonNull RecyclerView parent, @NonNull RecyclerView.State state) {
+        outRect.set(0, 0, 0, 0);
+        int contentPosition = getContentPosition(view);
+        if (contentPosition < 0 || !sectionIndex.isSectionStart(contentPosition)) return;
+        ensureHeaderView(parent);
+        outRect.top = headerHeight;
+    }
+
+    @Override
+    public void onDrawOver(@NonNull Canvas c, @NonNull RecyclerView parent, @NonNull RecyclerView.State state) {
+        if (sectionIndex.getSectionCount() == 0) return;
+        ensureHeaderView(parent);
+        if (headerHeight <= 0) return;
+        drawCount++;
+        int parentTop = parent.getClipToPadding() ? parent.getPaddingTop() : 0;
+        int left = parent.getPaddingLeft();
+        //找到第一个可见的内容item
+        int firstPosition = Integer.MAX_VALUE;
+        for (int i = 0, count = parent.getChildCount(); i < count; i++) {
+            int contentPosition = getContentPosition(parent.getChildAt(i));
+            if (contentPosition >= 0 && contentPosition < firstPosition) firstPosition = contentPosition;
+        }
+        if (firstPosition == Integer.MAX_VALUE) return;
+        int currentSection = sectionIndex.getSectionForPosition(firstPosition);
+        int nextStart = currentSection + 1 < sectionIndex.getSectionCount() ? sectionIndex.getSectionStart(currentSection + 1) : -1;
+        int currentStart = sectionIndex.getSectionStart(currentSection);
+        int stickyTop = parentTop;
+        int nextTop = Integer.MAX_VALUE;
+        //其他分组的头部画在各自第一个item的上方
+        for (int i = 0, count = parent.getChildCount(); i < count; i++) {
+            View child = parent.getChildAt(i);
+            int contentPosition = getContentPosition(child);
+            if (contentPosition < 0 || !sectionIndex.isSectionStart(contentPosition)) continue;
+            int top = child.getTop() + Math.round(child.getTranslationY()) - headerHeight;
+            if (contentPosition == currentStart) {
+                //当前分组的头部还没有滑到顶部
+                stickyTop = Math.max(stickyTop, top);
+                continue;
+            }
+            if (contentPosition == nextStart) nextTop = top;
+            c.drawBitmap(obtainBitmap(sectionIndex.getSectionForPosition(contentPosition)), left, top, null);
+        }
+        //被下一组的头部顶上去
+        if (nextTop != Integer.MAX_VALUE) stickyTop = Math.min(stickyTop, nextTop - headerHeight);
+        c.drawBitmap(obtainBitmap(currentSection), left, stickyTop, null);
+    }
+
+    /**
+     * 获取内容position，头部和尾部返回-1
+     */
+    private int getContentPosition(View view) {
+        int contentPosition = ((RecyclerView.LayoutParams) view.getLayoutParams()).getViewLayoutPosition()
+                - refreshLoadRecyclerAdapter.getHeadersCount();
+        return contentPosition < refreshLoadRecyclerAdapter.getRealItemCount() ? contentPosition : -1;
+    }
+
+    /**
+     * 创建头部View，宽度变化时重新测量
+     */
+    private void ensureHeaderView(RecyclerView parent) {
+        int width = parent.getWidth() - parent.getPaddingLeft() - parent.getPaddingRight();
+        if (headerView != null && width == headerWidth) return;
+        if (headerView == null) headerView = stickyHeaderBinder.onCreateStickyHeader(parent);
+        headerWidth = width;
+        if (width <= 0) {
+            headerHeight = 0;
+            return;
+        }
+        if (sectionIndex.getSectionCount() > 0) stickyHeaderBinder.onBindStickyHeader(headerView, 0);
+        measureHeaderView();
+        headerHeight = headerView.getMeasuredHeight();
+        clearCache();
+    }
+
+    private void measureHeaderView() {
+        ViewGroup.LayoutParams lp = headerView.getLayoutParams();
+        int heightSpec = lp != null && lp.height > 0
+                ? View.MeasureSpec.makeMeasureSpec(lp.height, View.MeasureSpec.EXACTLY)
+                : View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED);
+        headerView.measure(View.MeasureSpec.makeMeasureSpec(headerWidth, View.MeasureSpec.EXACTLY), heightSpec);
+        headerView.layout(0, 0, headerWidth, headerView.getMeasuredHeight());
+    }
+
+    /**
+     * 缓存数量翻倍
+     *
+     * @return 第一个新增的位置
+     */
+    private int growCache() {
+        int oldSize = cachedSections.length;
+        int newSize = oldSize * 2;
+        int[] newSections = new int[newSize];
+        Bitmap[] newBitmaps = new Bitmap[newSize];
+        long[] newUseTimes = new long[newSize];
+        System.arraycopy(cachedSections, 0, newSections, 0, oldSize);
+        System.arraycopy(cachedBitmaps, 0, newBitmaps, 0, oldSize);
+        System.arraycopy(cachedUseTimes, 0, newUseTimes, 0, oldSize);
+        for (int i = oldSize; i < newSize; i++) {
+            newSections[i] = -1;
+        }
+        cachedSections = newSections;
+        cachedBitmaps = newBitmaps;
+        cachedUseTimes = newUseTimes;
+        return oldSize;
+    }
+
+    /**
+     * 获取分组头部的Bitmap，没有缓存时绑定并绘制
+     */
+    private Bitmap obtainBitmap(int section) {
+        int slot = 0;
+        for (int i = 0; i < cachedSections.length; i++) {
+            if (cachedSections[i] == section && cachedBitmaps[i] != null) {
+                cachedUseTimes[i] = drawCount;
+                return cachedBitmaps[i];
+            }
+            if (cachedUseTimes[i] < cachedUseTimes[slot]) slot = i;
+        }
+        //所有缓存在这一帧都已经画过，硬件加速时还被这一帧的绘制记录引用，不能重画，扩大缓存
+        if (cachedUseTimes[slot] == drawCount) slot = growCache();
+        //尺寸不变时复用原来的Bitmap
+        Bitmap bitmap = cachedBitmaps[slot];
+        if (bitmap == null || bitmap.getWidth() != headerWidth || bitmap.getHeight() != headerHeight) {
+            //旧的Bitmap可能还在上一帧的绘制记录中，不主动recycle
+            bitmap = Bitmap.createBitmap(headerWidth, headerHeight, Bitmap.Config.ARGB_8888);
+            cachedBitmaps[slot] = bitmap;
+        } else {
+            bitmap.eraseColor(Color.TRANSPARENT);
+        }
+        stickyHeaderBinder.onBindStickyHeader(headerView, section);
+        measureHeaderView();
+        renderCanvas.setBitmap(bitmap);
+        headerView.draw(renderCanvas);
+        renderCanvas.setBitmap(null);
+        cachedSections[slot] = section;
+        cachedUseTimes[slot] = drawCount;
+        return bitmap;
+    }
+}
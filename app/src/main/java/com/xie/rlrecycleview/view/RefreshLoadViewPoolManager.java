@@ -0,0 +1,192 @@
+package com.xie.rlrecycleview.view;
+
+import android.content.ComponentCallbacks2;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
+import android.util.SparseBooleanArray;
+import android.util.SparseIntArray;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Created by Anthony on 2019/3/26.
+ * Describe:
+ * 多个RefreshLoadRecyclerView共用的RecycledViewPool
+ * 每种类型的缓存数量可以手动设置，也可以根据观察到的最大可见数量自动调整
+ * 刷新头部、自定义头部尾部和加载更多尾部的类型不会放入共用缓存，防止View在列表之间串用
+ * 内存不足时由任意一个列表触发，统一清空所有列表的一级缓存和共用缓存
+ */
+public class RefreshLoadViewPoolManager {
+    //RecycledViewPool默认每种类型的缓存数量
+    private static final int DEFAULT_CAPACITY = 5;
+    //自动调整时在最大可见数量上多留的数量
+    private static final int LEARN_EXTRA_CAPACITY = 2;
+    //自动调整的上限
+    private static final int MAX_LEARNED_CAPACITY = 30;
+
+    private final SharedViewPool viewPool = new SharedViewPool(this);
+    //每种类型当前的缓存数量
+    private final SparseIntArray capacities = new SparseIntArray();
+    //手动设置过的类型，不再自动调整
+    private final SparseIntArray fixedCapacities = new SparseIntArray();
+    //统计可见数量用，复用避免分配
+    private final SparseIntArray visibleCounts = new SparseIntArray();
+    private final Map<RecyclerView, RecyclerView.OnScrollListener> listeners = new WeakHashMap<>();
+    private boolean isLearnCapacity = true;
+    private RefreshLoadRecyclerView.OnTrimMemoryListener onTrimMemoryListener;
+
+    /**
+     * 让列表使用共用缓存，需要在setAdapter之前调用
+     *
+     * @param recyclerView recyclerView
+     */
+    public void attach(@NonNull RefreshLoadRecyclerView recyclerView) {
+        if (listeners.containsKey(recyclerView)) return;
+        recyclerView.setRecycledViewPool(viewPool);
+        //列表从ViewPager中移除时把Holder还给共用缓存
+        if (recyclerView.getLayoutManager() instanceof LinearLayoutManager) {
+            ((LinearLayoutManager) recyclerView.getLayoutManager()).setRecycleChildrenOnDetach(true);
+        }
+        RecyclerView.OnScrollListener listener = new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                if (isLearnCapacity) learnCapacity(recyclerView);
+            }
+        };
+        recyclerView.addOnScrollListener(listener);
+        listeners.put(recyclerView, listener);
+    }
+
+    /**
+     * 列表不再使用共用缓存
+     *
+     * @param recyclerView recyclerView
+     */
+    public void detach(@NonNull RefreshLoadRecyclerView recyclerView) {
+        RecyclerView.OnScrollListener listener = listeners.remove(recyclerView);
+        if (listener == null) return;
+        recyclerView.removeOnScrollListener(listener);
+        recyclerView.setRecycledViewPool(null);
+    }
+
+    /**
+     * 设置某种类型的缓存数量，设置后该类型不再自动调整
+     *
+     * @param viewType viewType
+     * @param capacity 缓存数量
+     */
+    public void setCapacity(int viewType, int capacity) {
+        if (RefreshLoadRecyclerAdapter.isReservedViewType(viewType)) return;
+        fixedCapacities.put(viewType, capacity);
+        capacities.put(viewType, capacity);
+        viewPool.setMaxRecycledViews(viewType, capacity);
+    }
+
+    /**
+     * 获取某种类型的缓存数量
+     *
+     * @param viewType viewType
+     * @return 缓存数量
+     */
+    public int getCapacity(int viewType) {
+        return capacities.get(viewType, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * 设置是否根据最大可见数量自动调整缓存数量，默认开启
+     *
+     * @param learnCapacity 是否开启
+     */
+    public void setLearnCapacity(boolean learnCapacity) {
+        isLearnCapacity = learnCapacity;
+    }
+
+    @NonNull
+    public RecyclerView.RecycledViewPool getViewPool() {
+        return viewPool;
+    }
+
+    /**
+     * 设置清空共用缓存的监听，releasedItemCount始终为0
+     *
+     * @param onTrimMemoryListener listener
+     */
+    public void setOnTrimMemoryListener(@Nullable RefreshLoadRecyclerView.OnTrimMemoryListener onTrimMemoryListener) {
+        this.onTrimMemoryListener = onTrimMemoryListener;
+    }
+
+    /**
+     * 界面不可见(TRIM_MEMORY_UI_HIDDEN)以上时把所有列表的一级缓存放进共用缓存，再一起清空
+     * 每个列表都会收到系统回调，后面的调用缓存已经是空的，不再回调监听
+     *
+     * @param level ComponentCallbacks2.TRIM_MEMORY_*
+     */
+    public void trimMemory(int level) {
+        if (level < ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN) return;
+        for (RecyclerView recyclerView : listeners.keySet()) {
+            ((RefreshLoadRecyclerView) recyclerView).flushItemViewCache();
+        }
+        int releasedHolderCount = 0;
+        long releasedBytes = 0;
+        for (int i = 0; i < viewPool.putViewTypes.size(); i++) {
+            RecyclerView.ViewHolder holder;
+            while ((holder = viewPool.getRecycledView(viewPool.putViewTypes.keyAt(i))) != null) {
+                releasedHolderCount++;
+                releasedBytes += 4L * holder.itemView.getWidth() * holder.itemView.getHeight();
+            }
+        }
+        viewPool.clear();
+        if (onTrimMemoryListener != null && releasedHolderCount > 0)
+            onTrimMemoryListener.onTrimMemory(level, releasedHolderCount, 0, releasedBytes);
+    }
+
+    /**
+     * 统计每种类型的可见数量，超过当前缓存数量时扩大缓存
+     */
+    private void learnCapacity(RecyclerView recyclerView) {
+        visibleCounts.clear();
+        for (int i = 0; i < recyclerView.getChildCount(); i++) {
+            RecyclerView.ViewHolder holder = recyclerView.getChildViewHolder(recyclerView.getChildAt(i));
+            if (holder == null) continue;
+            int viewType = holder.getItemViewType();
+            if (RefreshLoadRecyclerAdapter.isReservedViewType(viewType)) continue;
+            visibleCounts.put(viewType, visibleCounts.get(viewType) + 1);
+        }
+        for (int i = 0; i < visibleCounts.size(); i++) {
+            int viewType = visibleCounts.keyAt(i);
+            if (fixedCapacities.indexOfKey(viewType) >= 0) continue;
+            int capacity = Math.min(visibleCounts.valueAt(i) + LEARN_EXTRA_CAPACITY, MAX_LEARNED_CAPACITY);
+            if (capacity > getCapacity(viewType)) {
+                capacities.put(viewType, capacity);
+                viewPool.setMaxRecycledViews(viewType, capacity);
+            }
+        }
+    }
+
+    /**
+     * 不缓存头部尾部类型的共用缓存
+     */
+    static class SharedViewPool extends RecyclerView.RecycledViewPool {
+        private final RefreshLoadViewPoolManager manager;
+        //放进过缓存的类型，清空时统计数量用
+        private final SparseBooleanArray putViewTypes = new SparseBooleanArray();
+
+        SharedViewPool(RefreshLoadViewPoolManager manager) {
+            this.manager = manager;
+        }
+
+        RefreshLoadViewPoolManager getManager() {
+            return manager;
+        }
+
+        @Override
+        public void putRecycledView(RecyclerView.ViewHolder scrap) {
+            if (RefreshLoadRecyclerAdapter.isReservedViewType(scrap.getItemViewType())) return;
+            putViewTypes.put(scrap.getItemViewType(), true);
+            super.putRecycledView(scrap);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.xie.rlrecycleview.view;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Created by Anthony on 2019/4/8.
+ * Describe:
+ * 简单的JVM基准测试工具
+ * 先预热再计时，输出ops/s和每次操作分配的字节数，结果写到build/reports/benchmark下，方便不同版本之间对比
+ */
+class BenchmarkRunner {
+    private static final long WARMUP_NANOS = 500_000_000L;
+    private static final long MEASURE_NANOS = 1_000_000_000L;
+    private static final int BATCH = 1000;
+
+    interface Operation {
+        /**
+         * 执行一次被测操作
+         *
+         * @param i 第几次执行，可用于生成不同的参数
+         * @return 任意结果，防止被JIT优化掉
+         */
+        int run(int i);
+    }
+
+    private final List<String> results = new ArrayList<>();
+    //防止被JIT优化掉
+    private int sink;
+
+    void measure(String name, Operation operation) {
+        runFor(operation, WARMUP_NANOS);
+        long startBytes = getAllocatedBytes();
+        long startNanos = System.nanoTime();
+        long ops = runFor(operation, MEASURE_NANOS);
+        long elapsedNanos = System.nanoTime() - startNanos;
+        long allocatedBytes = getAllocatedBytes() - startBytes;
+        double opsPerSecond = ops * 1e9 / elapsedNanos;
+        double nanosPerOp = (double) elapsedNanos / ops;
+        String bytesPerOp = startBytes < 0 ? "n/a" : String.format(Locale.US, "%.2f", (double) allocatedBytes / ops);
+        String line = String.format(Locale.US, "%-48s %16.0f ops/s %10.1f ns/op %10s B/op", name, opsPerSecond, nanosPerOp, bytesPerOp);
+        results.add(line);
+        System.out.println(line);
+    }
+
+    /**
+     * 写出结果
+     *
+     * @param fileName 文件名
+     */
+    void writeReport(String fileName) throws IOException {
+        File dir = new File("build/reports/benchmark");
+        if (!dir.exists() && !dir.mkdirs()) throw new IOException("无法创建目录" + dir);
+        FileWriter writer = new FileWriter(new File(dir, fileName));
+        try {
+            for (String line : results) {
+                writer.write(line);
+                writer.write('\n');
+            }
+        } finally {
+            writer.close();
+        }
+    }
+
+    private long runFor(Operation operation, long durationNanos) {
+        long ops = 0;
+        long endNanos = System.nanoTime() + durationNanos;
+        while (System.nanoTime() < endNanos) {
+            for (int i = 0; i < BATCH; i++) {
+                sink += operation.run(i);
+            }
+            ops += BATCH;
+        }
+        return ops;
+    }
+
+    private static long getAllocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+}
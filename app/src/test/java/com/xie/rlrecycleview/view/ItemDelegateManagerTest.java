@@ -0,0 +1,126 @@
+package com.xie.rlrecycleview.view;
+
+import android.support.annotation.NonNull;
+import android.view.View;
+import android.view.ViewGroup;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Created by Anthony on 2019/5/16.
+ * Describe:
+ * ItemDelegateManager的类型分配和分发
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class ItemDelegateManagerTest {
+
+    @Test
+    public void dispatchesByItemClass() {
+        ItemDelegateManager manager = new ItemDelegateManager();
+        TextDelegate textDelegate = new TextDelegate();
+        NumberDelegate numberDelegate = new NumberDelegate();
+        int textType = manager.register(String.class, textDelegate);
+        int numberType = manager.register(Integer.class, numberDelegate);
+        assertNotEquals(textType, numberType);
+        assertEquals(textType, manager.getItemViewType("a", 0));
+        assertEquals(numberType, manager.getItemViewType(1, 1));
+        assertSame(textDelegate, manager.getDelegate(textType));
+        assertSame(numberDelegate, manager.getDelegate(numberType));
+    }
+
+    @Test
+    public void viewTypeIsStableAcrossManagers() {
+        ItemDelegateManager first = new ItemDelegateManager();
+        ItemDelegateManager second = new ItemDelegateManager();
+        //注册顺序不同，共用RecycledViewPool时类型仍然一致
+        first.register(Integer.class, new NumberDelegate());
+        int firstType = first.register(String.class, new TextDelegate());
+        int secondType = second.register(String.class, new TextDelegate());
+        assertEquals(firstType, secondType);
+        assertEquals(firstType, ItemDelegateManager.obtainViewType(TextDelegate.class));
+        assertFalse(RefreshLoadRecyclerAdapter.isReservedViewType(firstType));
+    }
+
+    @Test
+    public void findsDelegateThroughInterface() {
+        ItemDelegateManager manager = new ItemDelegateManager();
+        int type = manager.register(CharSequence.class, new CharSequenceDelegate());
+        assertEquals(type, manager.getItemViewType("a", 0));
+        assertEquals(type, manager.getItemViewType(new StringBuilder("b"), 1));
+    }
+
+    @Test
+    public void exactClassWinsAfterLaterRegistration() {
+        ItemDelegateManager manager = new ItemDelegateManager();
+        int charSequenceType = manager.register(CharSequence.class, new CharSequenceDelegate());
+        assertEquals(charSequenceType, manager.getItemViewType("a", 0));
+        //之前沿接口找到的结果需要失效
+        int textType = manager.register(String.class, new TextDelegate());
+        assertEquals(textType, manager.getItemViewType("a", 0));
+    }
+
+    @Test
+    public void choosesByIsForItem() {
+        ItemDelegateManager manager = new ItemDelegateManager();
+        int evenType = manager.register(Integer.class, new EvenDelegate());
+        int numberType = manager.register(Integer.class, new NumberDelegate());
+        assertEquals(evenType, manager.getItemViewType(2, 0));
+        assertEquals(numberType, manager.getItemViewType(3, 1));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void rejectsDuplicateDelegateClass() {
+        ItemDelegateManager manager = new ItemDelegateManager();
+        manager.register(String.class, new TextDelegate());
+        manager.register(String.class, new TextDelegate());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void rejectsUnregisteredItem() {
+        ItemDelegateManager manager = new ItemDelegateManager();
+        manager.register(String.class, new TextDelegate());
+        manager.getItemViewType(1L, 0);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void rejectsUnknownViewType() {
+        new ItemDelegateManager().getDelegate(ItemDelegateManager.obtainViewType(TextDelegate.class));
+    }
+
+    private abstract static class TestDelegate<T> extends ItemViewDelegate<T, BaseRecyclerViewHolder> {
+        @NonNull
+        @Override
+        public BaseRecyclerViewHolder onCreateViewHolder(@NonNull ViewGroup parent) {
+            return BaseRecyclerViewHolder.createViewHolder(new View(parent.getContext()));
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull BaseRecyclerViewHolder holder, @NonNull T item, int position) {
+        }
+    }
+
+    private static class TextDelegate extends TestDelegate<String> {
+    }
+
+    private static class NumberDelegate extends TestDelegate<Integer> {
+    }
+
+    private static class EvenDelegate extends TestDelegate<Integer> {
+        @Override
+        public boolean isForItem(@NonNull Integer item, int position) {
+            return item % 2 == 0;
+        }
+    }
+
+    private static class CharSequenceDelegate extends TestDelegate<CharSequence> {
+    }
+}
@@ -0,0 +1,230 @@
+package com.xie.rlrecycleview.view;
+
+import android.content.Context;
+import android.support.v7.widget.GridLayoutManager;
+import android.support.v7.widget.RecyclerView;
+import android.support.v7.widget.StaggeredGridLayoutManager;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.LinearLayout;
+
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.io.IOException;
+
+/**
+ * Created by Anthony on 2019/4/8.
+ * Describe:
+ * view包的JVM基准测试，默认不运行
+ * 运行：./gradlew :app:testDebugUnitTest -Pbenchmark
+ * 结果：app/build/reports/benchmark/refreshload.txt
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class RefreshLoadBenchmark {
+    private static final int ITEM_COUNT = 1000;
+    private static final int HEADER_COUNT = 20;
+    private static final int FOOTER_COUNT = 20;
+
+    private static final BenchmarkRunner runner = new BenchmarkRunner();
+    private Context context;
+
+    @Before
+    public void setUp() {
+        context = RuntimeEnvironment.application;
+    }
+
+    @AfterClass
+    public static void writeReport() throws IOException {
+        runner.writeReport("refreshload.txt");
+    }
+
+    @Test
+    public void positionMapping() {
+        final BenchAdapter adapter = createAdapter();
+        final int count = adapter.getItemCount();
+        runner.measure("adapter.getItemViewType", new BenchmarkRunner.Operation() {
+            @Override
+            public int run(int i) {
+                return adapter.getItemViewType(i % count);
+            }
+        });
+        runner.measure("adapter.getItemCount", new BenchmarkRunner.Operation() {
+            @Override
+            public int run(int i) {
+                return adapter.getItemCount();
+            }
+        });
+        //分区表之前的算法，每次查询都重新计算头部、内容和尾部的范围
+        runner.measure("adapter.getItemViewType(uncached)", new BenchmarkRunner.Operation() {
+            @Override
+            public int run(int i) {
+                return uncachedGetItemViewType(adapter, i % count);
+            }
+        });
+        runner.measure("adapter.getItemCount(uncached)", new BenchmarkRunner.Operation() {
+            @Override
+            public int run(int i) {
+                return adapter.getHeadersCount() + adapter.getFootersCount() + adapter.getRealItemCount();
+            }
+        });
+
+        RecyclerView recyclerView = new RecyclerView(context);
+        GridLayoutManager gridLayoutManager = new GridLayoutManager(context, 3);
+        recyclerView.setLayoutManager(gridLayoutManager);
+        recyclerView.setAdapter(adapter);
+        final GridLayoutManager.SpanSizeLookup lookup = gridLayoutManager.getSpanSizeLookup();
+        runner.measure("spanSizeLookup.getSpanSize", new BenchmarkRunner.Operation() {
+            @Override
+            public int run(int i) {
+                return lookup.getSpanSize(i % count);
+            }
+        });
+        runner.measure("spanSizeLookup.getSpanIndex", new BenchmarkRunner.Operation() {
+            @Override
+            public int run(int i) {
+                return lookup.getSpanIndex(i % count, 3);
+            }
+        });
+    }
+
+    @Test
+    public void bottomLoadMoreCheck() {
+        measureBottomLoadMoreCheck("recyclerView.checkTheBottomLoadMore(linear)", null);
+        measureBottomLoadMoreCheck("recyclerView.checkTheBottomLoadMore(staggered)",
+                new StaggeredGridLayoutManager(3, StaggeredGridLayoutManager.VERTICAL));
+    }
+
+    @Test
+    public void edgeDetection() {
+        final BenchAdapter adapter = createAdapter();
+        final RefreshLoadRecyclerView recyclerView = new RefreshLoadRecyclerView(context);
+        recyclerView.setLayoutManager(new StaggeredGridLayoutManager(3, StaggeredGridLayoutManager.VERTICAL));
+        recyclerView.setAdapter(adapter);
+        recyclerView.measure(View.MeasureSpec.makeMeasureSpec(1080, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(1920, View.MeasureSpec.EXACTLY));
+        recyclerView.layout(0, 0, 1080, 1920);
+        runner.measure("recyclerView.findLastVisibleItemPosition(staggered,uncached)", new BenchmarkRunner.Operation() {
+            @Override
+            public int run(int i) {
+                recyclerView.invalidateEdgeCache();
+                return recyclerView.findLastVisibleItemPosition();
+            }
+        });
+        runner.measure("recyclerView.findLastVisibleItemPosition(staggered,cached)", new BenchmarkRunner.Operation() {
+            @Override
+            public int run(int i) {
+                return recyclerView.findLastVisibleItemPosition();
+            }
+        });
+    }
+
+    @Test
+    public void refreshHeaderMove() {
+        final RefreshHeader refreshHeader = new RefreshHeader(context);
+        runner.measure("refreshHeader.onMove", new BenchmarkRunner.Operation() {
+            @Override
+            public int run(int i) {
+                //来回拖动，越过准备刷新的临界点
+                refreshHeader.onMove(i % 20 < 10 ? 40 : -40);
+                return refreshHeader.getState();
+            }
+        });
+    }
+
+    @Test
+    public void holderGetView() {
+        LinearLayout itemView = new LinearLayout(context);
+        for (int i = 1; i <= 10; i++) {
+            View child = new View(context);
+            child.setId(i);
+            itemView.addView(child);
+        }
+        final BaseRecyclerViewHolder holder = BaseRecyclerViewHolder.createViewHolder(itemView);
+        runner.measure("holder.getView", new BenchmarkRunner.Operation() {
+            @Override
+            public int run(int i) {
+                return holder.getView(1 + i % 10).getId();
+            }
+        });
+    }
+
+    private void measureBottomLoadMoreCheck(String name, RecyclerView.LayoutManager layoutManager) {
+        final BenchAdapter adapter = createAdapter();
+        adapter.setOnLoadMoreListener(new RefreshLoadRecyclerAdapter.OnLoadMoreListener() {
+            @Override
+            public void onLoadMore() {
+            }
+        });
+        adapter.setAutoLoadEnable(true, 3);
+        final RefreshLoadRecyclerView recyclerView = new RefreshLoadRecyclerView(context);
+        if (layoutManager != null) recyclerView.setLayoutManager(layoutManager);
+        recyclerView.setAdapter(adapter);
+        recyclerView.measure(View.MeasureSpec.makeMeasureSpec(1080, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(1920, View.MeasureSpec.EXACTLY));
+        recyclerView.layout(0, 0, 1080, 1920);
+        runner.measure(name, new BenchmarkRunner.Operation() {
+            @Override
+            public int run(int i) {
+                recyclerView.checkTheBottomLoadMore(adapter);
+                return 0;
+            }
+        });
+    }
+
+    private static int uncachedGetItemViewType(BenchAdapter adapter, int position) {
+        if (position < adapter.getHeadersCount()) {
+            return adapter.getHeaderViews().keyAt(position);
+        } else if (position >= adapter.getHeadersCount() + adapter.getRealItemCount()) {
+            return adapter.getFootViews().keyAt(position - adapter.getHeadersCount() - adapter.getRealItemCount());
+        }
+        return adapter.getItemViewTypeNew(position - adapter.getHeadersCount());
+    }
+
+    private BenchAdapter createAdapter() {
+        BenchAdapter adapter = new BenchAdapter(context, ITEM_COUNT);
+        for (int i = 0; i < HEADER_COUNT; i++) {
+            adapter.addHeaderView(new View(context));
+        }
+        for (int i = 0; i < FOOTER_COUNT; i++) {
+            adapter.addFooterView(new View(context));
+        }
+        return adapter;
+    }
+
+    private static class BenchAdapter extends RefreshLoadRecyclerAdapter {
+        private final int count;
+
+        BenchAdapter(Context context, int count) {
+            super(context);
+            this.count = count;
+        }
+
+        @Override
+        protected BaseRecyclerViewHolder onCreateViewHolderNew(ViewGroup parent, int viewType) {
+            View itemView = new View(context);
+            itemView.setLayoutParams(new RecyclerView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, 100));
+            return BaseRecyclerViewHolder.createViewHolder(itemView);
+        }
+
+        @Override
+        protected int getItemViewTypeNew(int position) {
+            return position % 3;
+        }
+
+        @Override
+        protected void onBindViewHolderNew(BaseRecyclerViewHolder holder, int position) {
+        }
+
+        @Override
+        protected int getRealItemCount() {
+            return count;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.xie.rlrecycleview.view;
+
+import android.content.Context;
+import android.os.Bundle;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.v7.util.DiffUtil;
+import android.view.View;
+import android.view.ViewGroup;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Created by Anthony on 2019/5/16.
+ * Describe:
+ * RefreshLoadListAdapter的提交顺序、向前加载的排队和加载进度的保存恢复
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class RefreshLoadListAdapterTest {
+    private QueueExecutor executor;
+    private TestListAdapter adapter;
+
+    @Before
+    public void setUp() {
+        executor = new QueueExecutor();
+        adapter = new TestListAdapter(RuntimeEnvironment.application);
+        adapter.setDiffExecutor(executor);
+    }
+
+    @Test
+    public void dropsStaleDiff() {
+        adapter.submitList(Arrays.asList(1, 2, 3));
+        final List<String> commits = new ArrayList<>();
+        adapter.submitList(Arrays.asList(1, 2), new Runnable() {
+            @Override
+            public void run() {
+                commits.add("first");
+            }
+        });
+        adapter.submitList(Arrays.asList(3, 4), new Runnable() {
+            @Override
+            public void run() {
+                commits.add("second");
+            }
+        });
+        //先完成的差异计算已经被后面的提交覆盖
+        executor.runAll();
+        assertEquals(Arrays.asList(3, 4), adapter.getCurrentList());
+        assertEquals(Arrays.asList("second"), commits);
+    }
+
+    @Test
+    public void previousPageWaitsForPendingDiff() {
+        adapter.submitList(Arrays.asList(3, 4));
+        adapter.submitList(Arrays.asList(3, 4, 5));
+        adapter.submitPreviousPage(Arrays.asList(1, 2));
+        adapter.submitPreviousPage(Arrays.asList(0));
+        //差异还没生效，不能插到旧数据前面再被覆盖
+        assertEquals(Arrays.asList(3, 4), adapter.getCurrentList());
+        executor.runAll();
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5), adapter.getCurrentList());
+    }
+
+    @Test
+    public void clearingDropsQueuedPreviousPage() {
+        adapter.submitList(Arrays.asList(3, 4));
+        adapter.submitList(Arrays.asList(3, 4, 5));
+        adapter.submitPreviousPage(Arrays.asList(1, 2));
+        adapter.submitList(null);
+        executor.runAll();
+        assertTrue(adapter.getCurrentList().isEmpty());
+        adapter.submitList(Arrays.asList(7));
+        assertEquals(Arrays.asList(7), adapter.getCurrentList());
+    }
+
+    @Test
+    public void refreshDropsQueuedPreviousPage() {
+        adapter.submitList(Arrays.asList(3, 4));
+        adapter.submitList(Arrays.asList(3, 4, 5));
+        adapter.submitPreviousPage(Arrays.asList(1, 2));
+        //刷新替换了数据，排队的上一页已经过期
+        adapter.submitList(Arrays.asList(10, 11));
+        executor.runAll();
+        assertEquals(Arrays.asList(10, 11), adapter.getCurrentList());
+    }
+
+    @Test
+    public void savesAndRestoresLoadedPages() {
+        List<Integer> items = new ArrayList<>();
+        for (int i = 0; i < 45; i++) {
+            items.add(i);
+        }
+        adapter.setPageSize(20);
+        adapter.nextPageCursor = "page-4";
+        adapter.submitList(items);
+        assertEquals(3, adapter.getLoadedPageCount());
+        Bundle outState = new Bundle();
+        adapter.onSaveLoadState(outState);
+
+        TestListAdapter restoredAdapter = new TestListAdapter(RuntimeEnvironment.application);
+        assertTrue(restoredAdapter.onRestoreLoadState(outState, 30));
+        assertEquals(3, restoredAdapter.restoredPageCount);
+        assertEquals("page-4", restoredAdapter.restoredCursor);
+        assertEquals(30, restoredAdapter.restoredAnchorPosition);
+    }
+
+    @Test
+    public void keepsDataWhenAdapterSurvived() {
+        adapter.setPageSize(20);
+        adapter.submitList(Arrays.asList(1, 2, 3));
+        Bundle outState = new Bundle();
+        adapter.onSaveLoadState(outState);
+        assertTrue(adapter.onRestoreLoadState(outState, 0));
+        assertEquals(-1, adapter.restoredPageCount);
+        assertEquals(Arrays.asList(1, 2, 3), adapter.getCurrentList());
+    }
+
+    @Test
+    public void nothingSavedIsNotRestored() {
+        Bundle outState = new Bundle();
+        adapter.onSaveLoadState(outState);
+        TestListAdapter restoredAdapter = new TestListAdapter(RuntimeEnvironment.application);
+        assertFalse(restoredAdapter.onRestoreLoadState(outState, -1));
+        assertEquals(-1, restoredAdapter.restoredPageCount);
+    }
+
+    /**
+     * 手动执行差异计算，模拟后台线程的完成顺序
+     */
+    private static class QueueExecutor implements Executor {
+        private final List<Runnable> runnables = new ArrayList<>();
+
+        @Override
+        public void execute(@NonNull Runnable runnable) {
+            runnables.add(runnable);
+        }
+
+        void runAll() {
+            while (!runnables.isEmpty()) {
+                runnables.remove(0).run();
+            }
+        }
+    }
+
+    private static class TestListAdapter extends RefreshLoadListAdapter<Integer> {
+        String nextPageCursor;
+        int restoredPageCount = -1;
+        String restoredCursor;
+        int restoredAnchorPosition = -1;
+
+        TestListAdapter(Context context) {
+            super(context, new DiffUtil.ItemCallback<Integer>() {
+                @Override
+                public boolean areItemsTheSame(@NonNull Integer oldItem, @NonNull Integer newItem) {
+                    return oldItem.equals(newItem);
+                }
+
+                @Override
+                public boolean areContentsTheSame(@NonNull Integer oldItem, @NonNull Integer newItem) {
+                    return oldItem.equals(newItem);
+                }
+            });
+        }
+
+        @Nullable
+        @Override
+        protected String getNextPageCursor() {
+            return nextPageCursor;
+        }
+
+        @Override
+        protected boolean onRestorePages(int loadedPageCount, @Nullable String nextPageCursor, int anchorPosition) {
+            restoredPageCount = loadedPageCount;
+            restoredCursor = nextPageCursor;
+            restoredAnchorPosition = anchorPosition;
+            return true;
+        }
+
+        @Override
+        protected BaseRecyclerViewHolder onCreateViewHolderNew(ViewGroup parent, int viewType) {
+            return BaseRecyclerViewHolder.createViewHolder(new View(context));
+        }
+
+        @Override
+        protected int getItemViewTypeNew(int position) {
+            return 0;
+        }
+
+        @Override
+        protected void onBindViewHolderNew(BaseRecyclerViewHolder holder, int position) {
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.xie.rlrecycleview.view;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.view.View;
+import android.view.ViewGroup;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Created by Anthony on 2019/5/16.
+ * Describe:
+ * RefreshLoadPagedAdapter内存不足时的页释放
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class RefreshLoadPagedAdapterTest {
+    private TestPagedAdapter adapter;
+
+    @Before
+    public void setUp() {
+        adapter = new TestPagedAdapter(RuntimeEnvironment.application);
+        adapter.addPage(Arrays.asList(0, 1, 2));
+        adapter.addPage(Arrays.asList(3, 4, 5));
+        adapter.addPage(Arrays.asList(6, 7, 8));
+    }
+
+    @Test
+    public void keepsVisiblePagesOnly() {
+        int released = adapter.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW, 4, 5);
+        assertEquals(6, released);
+        assertEquals(Arrays.asList(0, 2), adapter.evictedPages);
+        assertEquals(1, adapter.getLoadedPageCount());
+        assertTrue(adapter.isPlaceholder(0));
+        assertFalse(adapter.isPlaceholder(4));
+    }
+
+    @Test
+    public void keepsPagesAcrossVisibleRange() {
+        int released = adapter.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW, 2, 3);
+        assertEquals(3, released);
+        assertEquals(Arrays.asList(2), adapter.evictedPages);
+    }
+
+    @Test
+    public void keepsAllPagesWhenNothingBound() {
+        //没有可见的内容，也还没有绑定过，不能把所有页都释放掉
+        int released = adapter.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_BACKGROUND, -1, -1);
+        assertEquals(0, released);
+        assertTrue(adapter.evictedPages.isEmpty());
+        assertEquals(3, adapter.getLoadedPageCount());
+    }
+
+    @Test
+    public void keepsAllPagesAfterClear() {
+        adapter.clearPages();
+        adapter.addPage(Arrays.asList(0, 1, 2));
+        assertEquals(0, adapter.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_BACKGROUND, -1, -1));
+        assertEquals(1, adapter.getLoadedPageCount());
+    }
+
+    private static class TestPagedAdapter extends RefreshLoadPagedAdapter<Integer> {
+        final List<Integer> evictedPages = new ArrayList<>();
+
+        TestPagedAdapter(Context context) {
+            super(context);
+        }
+
+        @Override
+        protected void onReloadPage(int pageIndex) {
+        }
+
+        @Override
+        protected void onPageEvicted(int pageIndex) {
+            evictedPages.add(pageIndex);
+        }
+
+        @Override
+        protected BaseRecyclerViewHolder onCreateViewHolderNew(ViewGroup parent, int viewType) {
+            return BaseRecyclerViewHolder.createViewHolder(new View(context));
+        }
+
+        @Override
+        protected int getItemViewTypeNew(int position) {
+            return 0;
+        }
+
+        @Override
+        protected void onBindViewHolderNew(BaseRecyclerViewHolder holder, int position) {
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.xie.rlrecycleview.view;
+
+import android.os.Bundle;
+import android.os.Parcel;
+import android.support.v4.view.AbsSavedState;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Created by Anthony on 2019/5/16.
+ * Describe:
+ * RefreshLoadRecyclerView.SavedState的序列化
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class RefreshLoadSavedStateTest {
+
+    @Test
+    public void parcelRoundTrip() {
+        RefreshLoadRecyclerView.SavedState state = new RefreshLoadRecyclerView.SavedState(AbsSavedState.EMPTY_STATE);
+        state.anchorPosition = 42;
+        state.anchorOffset = -17;
+        state.loadMoreState = BaseLoadMoreFooter.STATE_NO_MORE;
+        state.isRefreshing = true;
+        state.adapterState = new Bundle();
+        state.adapterState.putString("cursor", "page-3");
+
+        RefreshLoadRecyclerView.SavedState restored = writeAndRead(state);
+        assertEquals(42, restored.anchorPosition);
+        assertEquals(-17, restored.anchorOffset);
+        assertEquals(BaseLoadMoreFooter.STATE_NO_MORE, restored.loadMoreState);
+        assertTrue(restored.isRefreshing);
+        assertEquals("page-3", restored.adapterState.getString("cursor"));
+    }
+
+    @Test
+    public void parcelRoundTripWithDefaults() {
+        RefreshLoadRecyclerView.SavedState restored = writeAndRead(new RefreshLoadRecyclerView.SavedState(AbsSavedState.EMPTY_STATE));
+        assertEquals(RefreshLoadRecyclerView.NO_POSITION, restored.anchorPosition);
+        assertEquals(0, restored.anchorOffset);
+        assertEquals(BaseLoadMoreFooter.STATE_LOAD_FINISH, restored.loadMoreState);
+        assertFalse(restored.isRefreshing);
+        assertNull(restored.adapterState);
+    }
+
+    @Test
+    public void copyFromKeepsAllFields() {
+        RefreshLoadRecyclerView.SavedState state = new RefreshLoadRecyclerView.SavedState(AbsSavedState.EMPTY_STATE);
+        state.anchorPosition = 3;
+        state.anchorOffset = 5;
+        state.loadMoreState = BaseLoadMoreFooter.STATE_LOADING;
+        state.isRefreshing = true;
+        state.adapterState = new Bundle();
+        RefreshLoadRecyclerView.SavedState copy = new RefreshLoadRecyclerView.SavedState(AbsSavedState.EMPTY_STATE);
+        copy.copyFrom(state);
+        assertEquals(3, copy.anchorPosition);
+        assertEquals(5, copy.anchorOffset);
+        assertEquals(BaseLoadMoreFooter.STATE_LOADING, copy.loadMoreState);
+        assertTrue(copy.isRefreshing);
+        assertEquals(state.adapterState, copy.adapterState);
+    }
+
+    private static RefreshLoadRecyclerView.SavedState writeAndRead(RefreshLoadRecyclerView.SavedState state) {
+        Parcel parcel = Parcel.obtain();
+        try {
+            state.writeToParcel(parcel, 0);
+            parcel.setDataPosition(0);
+            return RefreshLoadRecyclerView.SavedState.CREATOR.createFromParcel(parcel);
+        } finally {
+            parcel.recycle();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.xie.rlrecycleview.view;
+
+import android.content.Context;
+import android.view.View;
+import android.view.ViewGroup;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Created by Anthony on 2019/5/16.
+ * Describe:
+ * RefreshLoadSectionIndex的分组和二分查找
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class RefreshLoadSectionIndexTest {
+    private KeyAdapter adapter;
+    private RefreshLoadSectionIndex sectionIndex;
+
+    @Before
+    public void setUp() {
+        adapter = new KeyAdapter(RuntimeEnvironment.application);
+        adapter.addHeaderView(new View(RuntimeEnvironment.application));
+        sectionIndex = new RefreshLoadSectionIndex(adapter, adapter);
+    }
+
+    @Test
+    public void groupsAdjacentEqualKeys() {
+        adapter.setKeys("a", "a", "b", "b", "b", "c");
+        assertEquals(3, sectionIndex.getSectionCount());
+        assertEquals(0, sectionIndex.getSectionStart(0));
+        assertEquals(2, sectionIndex.getSectionStart(1));
+        assertEquals(5, sectionIndex.getSectionStart(2));
+        assertEquals("b", sectionIndex.getSectionKey(1));
+    }
+
+    @Test
+    public void findsSectionForPosition() {
+        adapter.setKeys("a", "a", "b", "b", "b", "c");
+        assertEquals(0, sectionIndex.getSectionForPosition(0));
+        assertEquals(0, sectionIndex.getSectionForPosition(1));
+        assertEquals(1, sectionIndex.getSectionForPosition(2));
+        assertEquals(1, sectionIndex.getSectionForPosition(4));
+        assertEquals(2, sectionIndex.getSectionForPosition(5));
+        //超出范围的按最后一个分组
+        assertEquals(2, sectionIndex.getSectionForPosition(100));
+        assertEquals(-1, sectionIndex.getSectionForPosition(-1));
+        assertTrue(sectionIndex.isSectionStart(2));
+        assertFalse(sectionIndex.isSectionStart(3));
+    }
+
+    @Test
+    public void growsPastInitialCapacity() {
+        String[] keys = new String[100];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = String.valueOf(i / 2);
+        }
+        adapter.setKeys(keys);
+        assertEquals(50, sectionIndex.getSectionCount());
+        for (int i = 0; i < keys.length; i++) {
+            assertEquals(i / 2, sectionIndex.getSectionForPosition(i));
+        }
+    }
+
+    @Test
+    public void treatsNullKeysAsOneSection() {
+        adapter.setKeys(null, null, "a");
+        assertEquals(2, sectionIndex.getSectionCount());
+        assertEquals(0, sectionIndex.getSectionForPosition(1));
+    }
+
+    @Test
+    public void emptyContentHasNoSection() {
+        assertEquals(0, sectionIndex.getSectionCount());
+        assertEquals(-1, sectionIndex.getSectionForPosition(0));
+        assertFalse(sectionIndex.isSectionStart(0));
+    }
+
+    @Test
+    public void rebuildsAfterAdapterNotify() {
+        adapter.setKeys("a", "b");
+        assertEquals(2, sectionIndex.getSectionCount());
+        adapter.setKeys("a", "a", "a");
+        assertEquals(1, sectionIndex.getSectionCount());
+    }
+
+    @Test
+    public void releaseUnregistersObserver() {
+        assertTrue(adapter.hasObservers());
+        sectionIndex.release();
+        assertFalse(adapter.hasObservers());
+    }
+
+    private static class KeyAdapter extends RefreshLoadRecyclerAdapter implements RefreshLoadSectionIndex.SectionKeyProvider {
+        private List<String> keys = new ArrayList<>();
+
+        KeyAdapter(Context context) {
+            super(context);
+        }
+
+        void setKeys(String... keys) {
+            this.keys = Arrays.asList(keys);
+            notifyDataSetChanged();
+        }
+
+        @Override
+        public Object getSectionKey(int position) {
+            return keys.get(position);
+        }
+
+        @Override
+        protected BaseRecyclerViewHolder onCreateViewHolderNew(ViewGroup parent, int viewType) {
+            return BaseRecyclerViewHolder.createViewHolder(new View(context));
+        }
+
+        @Override
+        protected int getItemViewTypeNew(int position) {
+            return 0;
+        }
+
+        @Override
+        protected void onBindViewHolderNew(BaseRecyclerViewHolder holder, int position) {
+        }
+
+        @Override
+        protected int getRealItemCount() {
+            return keys.size();
+        }
+    }
+}
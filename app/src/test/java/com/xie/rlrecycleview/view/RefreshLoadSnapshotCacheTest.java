@@ -0,0 +1,166 @@
+package com.xie.rlrecycleview.view;
+
+import android.support.annotation.NonNull;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Created by Anthony on 2019/5/16.
+ * Describe:
+ * RefreshLoadSnapshotCache的读写和损坏文件处理
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class RefreshLoadSnapshotCacheTest {
+    private static final int MAGIC = 0x524C5343;
+    private static final int VERSION = 1;
+    private static final long TIMEOUT = 5000;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File file;
+
+    private static final RefreshLoadSnapshotCache.ItemSerializer<Integer> SERIALIZER = new RefreshLoadSnapshotCache.ItemSerializer<Integer>() {
+        @Override
+        public void write(@NonNull Integer item, @NonNull DataOutput out) throws IOException {
+            out.writeInt(item);
+        }
+
+        @NonNull
+        @Override
+        public Integer read(@NonNull DataInput in) throws IOException {
+            return in.readInt();
+        }
+    };
+
+    @Before
+    public void setUp() {
+        file = new File(temporaryFolder.getRoot(), "snapshot");
+    }
+
+    @Test
+    public void savesAndLoads() throws InterruptedException {
+        RefreshLoadSnapshotCache<Integer> cache = new RefreshLoadSnapshotCache<>(file, SERIALIZER, 10);
+        cache.save(Arrays.asList(1, 2, 3));
+        assertEquals(Arrays.asList(1, 2, 3), load(cache));
+    }
+
+    @Test
+    public void keepsLeadingItemsOnly() throws InterruptedException {
+        RefreshLoadSnapshotCache<Integer> cache = new RefreshLoadSnapshotCache<>(file, SERIALIZER, 2);
+        cache.save(Arrays.asList(1, 2, 3));
+        assertEquals(Arrays.asList(1, 2), load(cache));
+    }
+
+    @Test
+    public void missingFileLoadsEmpty() throws InterruptedException {
+        RefreshLoadSnapshotCache<Integer> cache = new RefreshLoadSnapshotCache<>(file, SERIALIZER, 10);
+        assertTrue(load(cache).isEmpty());
+    }
+
+    @Test
+    public void negativeCountIsDropped() throws IOException, InterruptedException {
+        writeFile(MAGIC, VERSION, -1);
+        RefreshLoadSnapshotCache<Integer> cache = new RefreshLoadSnapshotCache<>(file, SERIALIZER, 10);
+        assertTrue(load(cache).isEmpty());
+        assertFalse(file.exists());
+    }
+
+    @Test
+    public void truncatedFileIsDropped() throws IOException, InterruptedException {
+        //声明了很多条但只有一条，不能按声明的数量分配内存
+        writeFile(MAGIC, VERSION, Integer.MAX_VALUE, 1);
+        RefreshLoadSnapshotCache<Integer> cache = new RefreshLoadSnapshotCache<>(file, SERIALIZER, Integer.MAX_VALUE);
+        assertTrue(load(cache).isEmpty());
+        assertFalse(file.exists());
+    }
+
+    @Test
+    public void serializerFailureIsDropped() throws IOException, InterruptedException {
+        writeFile(MAGIC, VERSION, 1, 1);
+        RefreshLoadSnapshotCache<Integer> cache = new RefreshLoadSnapshotCache<>(file, new RefreshLoadSnapshotCache.ItemSerializer<Integer>() {
+            @Override
+            public void write(@NonNull Integer item, @NonNull DataOutput out) {
+            }
+
+            @NonNull
+            @Override
+            public Integer read(@NonNull DataInput in) {
+                throw new IllegalArgumentException("format changed");
+            }
+        }, 10);
+        assertTrue(load(cache).isEmpty());
+        assertFalse(file.exists());
+    }
+
+    @Test
+    public void otherFormatLoadsEmpty() throws IOException, InterruptedException {
+        writeFile(MAGIC, VERSION + 1, 1, 1);
+        RefreshLoadSnapshotCache<Integer> cache = new RefreshLoadSnapshotCache<>(file, SERIALIZER, 10);
+        assertTrue(load(cache).isEmpty());
+    }
+
+    @Test
+    public void clearDeletesFile() throws InterruptedException {
+        RefreshLoadSnapshotCache<Integer> cache = new RefreshLoadSnapshotCache<>(file, SERIALIZER, 10);
+        cache.save(Arrays.asList(1, 2, 3));
+        cache.clear();
+        assertTrue(load(cache).isEmpty());
+        assertFalse(file.exists());
+    }
+
+    private void writeFile(int... values) throws IOException {
+        DataOutputStream out = new DataOutputStream(new FileOutputStream(file));
+        try {
+            for (int value : values) {
+                out.writeInt(value);
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * 读取在后台线程执行，结果post到主线程，等待主线程收到回调
+     */
+    private List<Integer> load(RefreshLoadSnapshotCache<Integer> cache) throws InterruptedException {
+        final List<List<Integer>> result = new ArrayList<>();
+        cache.load(new RefreshLoadSnapshotCache.OnSnapshotLoadListener<Integer>() {
+            @Override
+            public void onSnapshotLoaded(@NonNull List<Integer> items) {
+                result.add(items);
+            }
+        });
+        long deadline = System.currentTimeMillis() + TIMEOUT;
+        while (result.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            ShadowLooper.runUiThreadTasks();
+        }
+        assertEquals(1, result.size());
+        assertNotNull(result.get(0));
+        return result.get(0);
+    }
+}
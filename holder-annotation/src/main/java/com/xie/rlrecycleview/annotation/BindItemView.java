@@ -0,0 +1,21 @@
+package com.xie.rlrecycleview.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Created by Anthony on 2019/3/22.
+ * Describe:
+ * 标记BaseRecyclerViewHolder子类中的控件字段，编译时生成的Holder在创建时一次性findViewById赋值
+ * 字段不能是private或final
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.FIELD)
+public @interface BindItemView {
+    /**
+     * 控件id
+     */
+    int value();
+}
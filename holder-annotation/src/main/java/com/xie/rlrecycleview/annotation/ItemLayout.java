@@ -0,0 +1,20 @@
+package com.xie.rlrecycleview.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Created by Anthony on 2019/3/22.
+ * Describe:
+ * 标记Holder对应的布局，生成的Holder会带有create(Context, ViewGroup)方法
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface ItemLayout {
+    /**
+     * 布局id
+     */
+    int value();
+}
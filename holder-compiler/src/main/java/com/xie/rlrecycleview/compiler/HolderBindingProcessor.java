@@ -0,0 +1,155 @@
+package com.xie.rlrecycleview.compiler;
+
+import com.xie.rlrecycleview.annotation.BindItemView;
+import com.xie.rlrecycleview.annotation.ItemLayout;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * Created by Anthony on 2019/3/22.
+ * Describe:
+ * 为使用了BindItemView/ItemLayout的Holder生成 类名_Binding 子类
+ * 子类在构造时一次性给所有控件字段赋值，绑定数据时直接读字段，不需要再getView查找
+ */
+public class HolderBindingProcessor extends AbstractProcessor {
+    private static final String SUFFIX = "_Binding";
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        Set<String> types = new LinkedHashSet<>();
+        types.add(BindItemView.class.getCanonicalName());
+        types.add(ItemLayout.class.getCanonicalName());
+        return types;
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Messager messager = processingEnv.getMessager();
+        //按Holder类分组
+        Map<TypeElement, Map<VariableElement, Integer>> holders = new LinkedHashMap<>();
+        for (Element element : roundEnv.getElementsAnnotatedWith(ItemLayout.class)) {
+            if (element.getKind() != ElementKind.CLASS) continue;
+            if (!holders.containsKey(element)) {
+                holders.put((TypeElement) element, new LinkedHashMap<VariableElement, Integer>());
+            }
+        }
+        for (Element element : roundEnv.getElementsAnnotatedWith(BindItemView.class)) {
+            if (element.getKind() != ElementKind.FIELD) continue;
+            Set<Modifier> modifiers = element.getModifiers();
+            if (modifiers.contains(Modifier.PRIVATE) || modifiers.contains(Modifier.FINAL) || modifiers.contains(Modifier.STATIC)) {
+                messager.printMessage(Diagnostic.Kind.ERROR, "@BindItemView字段不能是private、final或static", element);
+                continue;
+            }
+            TypeElement holder = (TypeElement) element.getEnclosingElement();
+            Map<VariableElement, Integer> fields = holders.get(holder);
+            if (fields == null) {
+                fields = new LinkedHashMap<>();
+                holders.put(holder, fields);
+            }
+            fields.put((VariableElement) element, element.getAnnotation(BindItemView.class).value());
+        }
+        for (Map.Entry<TypeElement, Map<VariableElement, Integer>> entry : holders.entrySet()) {
+            TypeElement holder = entry.getKey();
+            if (!checkHolder(holder, messager)) continue;
+            try {
+                writeBinding(holder, entry.getValue());
+            } catch (IOException e) {
+                messager.printMessage(Diagnostic.Kind.ERROR, "生成Binding失败：" + e.getMessage(), holder);
+            }
+        }
+        return true;
+    }
+
+    private boolean checkHolder(TypeElement holder, Messager messager) {
+        Set<Modifier> modifiers = holder.getModifiers();
+        if (modifiers.contains(Modifier.PRIVATE) || modifiers.contains(Modifier.FINAL)) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "Holder不能是private或final", holder);
+            return false;
+        }
+        if (holder.getNestingKind() == NestingKind.MEMBER && !modifiers.contains(Modifier.STATIC)) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "内部类Holder必须是static", holder);
+            return false;
+        }
+        return true;
+    }
+
+    private void writeBinding(TypeElement holder, Map<VariableElement, Integer> fields) throws IOException {
+        Elements elements = processingEnv.getElementUtils();
+        Types types = processingEnv.getTypeUtils();
+        PackageElement packageElement = elements.getPackageOf(holder);
+        String packageName = packageElement.isUnnamed() ? "" : packageElement.getQualifiedName().toString();
+        String bindingName = getFlatName(holder, packageName) + SUFFIX;
+        ItemLayout itemLayout = holder.getAnnotation(ItemLayout.class);
+
+        StringBuilder builder = new StringBuilder();
+        builder.append("// 由HolderBindingProcessor生成，请勿修改\n");
+        if (!packageName.isEmpty()) {
+            builder.append("package ").append(packageName).append(";\n\n");
+        }
+        builder.append("public class ").append(bindingName).append(" extends ").append(holder.getQualifiedName()).append(" {\n");
+        //构造时一次性赋值
+        builder.append("    public ").append(bindingName).append("(android.view.View itemView) {\n");
+        builder.append("        super(itemView);\n");
+        for (Map.Entry<VariableElement, Integer> field : fields.entrySet()) {
+            String type = types.erasure(field.getKey().asType()).toString();
+            builder.append("        this.").append(field.getKey().getSimpleName())
+                    .append(" = (").append(type).append(") itemView.findViewById(")
+                    .append(field.getValue()).append(");\n");
+        }
+        builder.append("    }\n");
+        if (itemLayout != null) {
+            builder.append("\n");
+            builder.append("    public static ").append(bindingName)
+                    .append(" create(android.content.Context context, android.view.ViewGroup parent) {\n");
+            builder.append("        return new ").append(bindingName)
+                    .append("(android.view.LayoutInflater.from(context).inflate(")
+                    .append(itemLayout.value()).append(", parent, false));\n");
+            builder.append("    }\n");
+        }
+        builder.append("}\n");
+
+        String qualifiedName = packageName.isEmpty() ? bindingName : packageName + "." + bindingName;
+        JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, holder);
+        Writer writer = file.openWriter();
+        try {
+            writer.write(builder.toString());
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * 内部类用下划线连接外部类名，例如MyAdapter.ItemHolder为MyAdapter_ItemHolder
+     */
+    private String getFlatName(TypeElement holder, String packageName) {
+        String qualifiedName = holder.getQualifiedName().toString();
+        String name = packageName.isEmpty() ? qualifiedName : qualifiedName.substring(packageName.length() + 1);
+        return name.replace('.', '_');
+    }
+}